@@ -0,0 +1,16 @@
+package com.zoopolitic.graphview;
+
+import android.os.SystemClock;
+
+/**
+ * {@link Clock} backed by {@link SystemClock#elapsedRealtime()}
+ */
+class AndroidClock implements Clock {
+
+    static final AndroidClock INSTANCE = new AndroidClock();
+
+    @Override
+    public long uptimeMillis() {
+        return SystemClock.elapsedRealtime();
+    }
+}
@@ -0,0 +1,603 @@
+package com.zoopolitic.graphview;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.Surface;
+import android.view.TextureView;
+
+import com.zoopolitic.graphview.formatter.CharLabelFormatter;
+import com.zoopolitic.graphview.formatter.LabelFormatter;
+import com.zoopolitic.graphview.formatter.ValueFormatter;
+
+/**
+ * Variant of {@link AutoScaleGraphView} which scrolls, scales and draws the graph on a dedicated
+ * render thread, so a busy UI thread does not drop graph frames and drawing a heavy graph does
+ * not delay the rest of the UI. Takes the same XML attributes as {@link AutoScaleGraphView}.
+ * <p>
+ * Frames are driven by {@link Choreographer} of the render thread and drawn into the surface of
+ * the view with a software canvas. Only touch events, setters and commands cross from the UI
+ * thread, they are posted to the render thread and applied before the next frame.
+ * <p>
+ * Data sets, formatters and {@link GraphMetricsListener} are used on the render thread. Once a
+ * data set is added it must be changed only with {@link #appendPoints}, feeders or actions
+ * passed to {@link #queueEvent(Runnable)}. Requires API 16.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+public class AutoScaleGraphTextureView extends TextureView {
+
+    /**
+     * Shared by all texture graph views, started with the first view and kept for the lifetime of
+     * the process. It is never quit, so views created later don't pay for starting a thread, an
+     * idle looper costs only a parked thread
+     */
+    private static HandlerThread renderThread;
+
+    private final Handler     renderHandler;
+    private final GraphEngine engine;
+
+    /**
+     * Values of the engine settings for getters called on the UI thread
+     */
+    private int     renderMode;
+    private int     adaptiveQuality;
+    private int     frameTimeBudget;
+    private boolean tiledRenderingEnabled;
+    private boolean drawCentralLine;
+    private boolean drawCentralLabel;
+    private int     snapDuration;
+    private int     scaleDuration;
+    private boolean snapEnabled;
+
+    /**
+     * Accessed only on the render thread
+     */
+    private Surface        surface;
+    private SurfaceTexture surfaceTexture;
+    private boolean        frameScheduled;
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            frameScheduled = false;
+            drawFrame();
+        }
+    };
+
+    private final Runnable scheduleFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            scheduleFrame();
+        }
+    };
+
+    public AutoScaleGraphTextureView(Context context) {
+        this(context, null, 0);
+    }
+
+    public AutoScaleGraphTextureView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public AutoScaleGraphTextureView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        renderHandler = new Handler(getRenderLooper());
+        // engine is built here and is used only on the render thread after that
+        engine = new GraphEngine(context, attrs, defStyleAttr, new GraphEngine.Host() {
+            @Override
+            public void invalidate() {
+                if (Looper.myLooper() == renderHandler.getLooper()) {
+                    scheduleFrame();
+                } else {
+                    renderHandler.post(scheduleFrameRunnable);
+                }
+            }
+
+            @Override
+            public void postOnAnimation(Runnable action) {
+                renderHandler.post(action);
+            }
+        });
+        renderMode = engine.getRenderMode();
+        adaptiveQuality = engine.getAdaptiveQuality();
+        frameTimeBudget = engine.getFrameTimeBudget();
+        tiledRenderingEnabled = engine.isTiledRenderingEnabled();
+        drawCentralLine = engine.isDrawCentralLine();
+        drawCentralLabel = engine.isDrawCentralLabel();
+        snapDuration = engine.getSnapDuration();
+        scaleDuration = engine.getScaleDuration();
+        snapEnabled = engine.isSnapEnabled();
+
+        setOpaque(false);
+        setSurfaceTextureListener(surfaceTextureListener);
+    }
+
+    private static synchronized Looper getRenderLooper() {
+        if (renderThread == null) {
+            renderThread = new HandlerThread("GraphRenderThread");
+            renderThread.start();
+        }
+        return renderThread.getLooper();
+    }
+
+    private void scheduleFrame() {
+        if (!frameScheduled && surface != null) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    private void drawFrame() {
+        if (surface == null) {
+            return;
+        }
+        engine.computeScroll();
+        Canvas canvas;
+        try {
+            canvas = surface.lockCanvas(null);
+        } catch (IllegalArgumentException e) {
+            return;
+        } catch (Surface.OutOfResourcesException e) {
+            return;
+        }
+        if (canvas == null) {
+            return;
+        }
+        try {
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            engine.draw(canvas);
+        } finally {
+            surface.unlockCanvasAndPost(canvas);
+        }
+    }
+
+    private final SurfaceTextureListener surfaceTextureListener = new SurfaceTextureListener() {
+        @Override
+        public void onSurfaceTextureAvailable(final SurfaceTexture texture, final int width, final int height) {
+            final int left = getPaddingLeft();
+            final int top = getPaddingTop();
+            final int right = getPaddingRight();
+            final int bottom = getPaddingBottom();
+            renderHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    surfaceTexture = texture;
+                    surface = new Surface(texture);
+                    engine.onSizeChanged(width, height, left, top, right, bottom);
+                    scheduleFrame();
+                }
+            });
+        }
+
+        @Override
+        public void onSurfaceTextureSizeChanged(SurfaceTexture texture, final int width, final int height) {
+            final int left = getPaddingLeft();
+            final int top = getPaddingTop();
+            final int right = getPaddingRight();
+            final int bottom = getPaddingBottom();
+            renderHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    engine.onSizeChanged(width, height, left, top, right, bottom);
+                }
+            });
+        }
+
+        @Override
+        public boolean onSurfaceTextureDestroyed(SurfaceTexture texture) {
+            renderHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (frameScheduled) {
+                        Choreographer.getInstance().removeFrameCallback(frameCallback);
+                        frameScheduled = false;
+                    }
+                    if (surface != null) {
+                        surface.release();
+                        surface = null;
+                    }
+                    if (surfaceTexture != null) {
+                        surfaceTexture.release();
+                        surfaceTexture = null;
+                    }
+                    engine.release();
+                }
+            });
+            // render thread may still draw into the texture, it is released there
+            return false;
+        }
+
+        @Override
+        public void onSurfaceTextureUpdated(SurfaceTexture texture) {
+        }
+    };
+
+    /**
+     * Runs action on the render thread before the next frame, use it to change added data sets
+     * and call {@link #notifyDataChanged()} from the action afterwards
+     */
+    public void queueEvent(Runnable action) {
+        renderHandler.post(action);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int minChartSize = getResources().getDimensionPixelSize(R.dimen.min_chart_size);
+        setMeasuredDimension(
+                Math.max(getSuggestedMinimumWidth(),
+                        resolveSize(minChartSize + getPaddingLeft() + getPaddingRight(),
+                                widthMeasureSpec)),
+                Math.max(getSuggestedMinimumHeight(),
+                        resolveSize(minChartSize + getPaddingTop() + getPaddingBottom(),
+                                heightMeasureSpec)));
+    }
+
+    /**
+     * Passes a copy of the event to the engine on the render thread and the event itself to
+     * {@link TextureView}, so click listeners, long press and accessibility work as in
+     * {@link AutoScaleGraphView}. Engine result is not known on the UI thread, but engine consumes
+     * every gesture starting with {@link MotionEvent#ACTION_DOWN}, so the event is always handled
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        // event is recycled by the UI thread after this call, engine gets a copy
+        final MotionEvent copy = MotionEvent.obtain(event);
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.onTouchEvent(copy);
+                copy.recycle();
+            }
+        });
+        super.onTouchEvent(event);
+        return true;
+    }
+
+    public void setVisibleXRange(final int visibleXRange) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setVisibleXRange(visibleXRange);
+            }
+        });
+    }
+
+    public void setXInterval(final int xInterval) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setXInterval(xInterval);
+            }
+        });
+    }
+
+    /**
+     * Sets how lines of data sets are drawn
+     *
+     * @param renderMode one of {@link AutoScaleGraphView#RENDER_MODE_FULL},
+     *                   {@link AutoScaleGraphView#RENDER_MODE_LTTB},
+     *                   {@link AutoScaleGraphView#RENDER_MODE_M4},
+     *                   {@link AutoScaleGraphView#RENDER_MODE_LOD}
+     */
+    public void setRenderMode(final int renderMode) {
+        switch (renderMode) {
+            case AutoScaleGraphView.RENDER_MODE_FULL:
+            case AutoScaleGraphView.RENDER_MODE_LTTB:
+            case AutoScaleGraphView.RENDER_MODE_M4:
+            case AutoScaleGraphView.RENDER_MODE_LOD:
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown render mode: " + renderMode);
+        }
+        this.renderMode = renderMode;
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setRenderMode(renderMode);
+            }
+        });
+    }
+
+    public int getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * Sets quality of frames drawn while the graph is animated, see
+     * {@link AutoScaleGraphView#setAdaptiveQuality(int)}
+     */
+    public void setAdaptiveQuality(final int adaptiveQuality) {
+        switch (adaptiveQuality) {
+            case AutoScaleGraphView.ADAPTIVE_QUALITY_OFF:
+            case AutoScaleGraphView.ADAPTIVE_QUALITY_MOTION:
+            case AutoScaleGraphView.ADAPTIVE_QUALITY_FRAME_TIME:
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown adaptive quality: " + adaptiveQuality);
+        }
+        this.adaptiveQuality = adaptiveQuality;
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setAdaptiveQuality(adaptiveQuality);
+            }
+        });
+    }
+
+    public int getAdaptiveQuality() {
+        return adaptiveQuality;
+    }
+
+    /**
+     * Sets max time in milliseconds a full quality frame may take in
+     * {@link AutoScaleGraphView#ADAPTIVE_QUALITY_FRAME_TIME}, measured on the render thread
+     */
+    public void setFrameTimeBudget(final int frameTimeBudget) {
+        if (frameTimeBudget < 0) {
+            throw new IllegalArgumentException("Frame time budget must not be negative: " + frameTimeBudget);
+        }
+        this.frameTimeBudget = frameTimeBudget;
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setFrameTimeBudget(frameTimeBudget);
+            }
+        });
+    }
+
+    public int getFrameTimeBudget() {
+        return frameTimeBudget;
+    }
+
+    /**
+     * Enables drawing of data sets from bitmap tiles while the graph is flung or scrolled by
+     * animation, see {@link AutoScaleGraphView#setTiledRenderingEnabled(boolean)}
+     */
+    public void setTiledRenderingEnabled(final boolean tiledRenderingEnabled) {
+        this.tiledRenderingEnabled = tiledRenderingEnabled;
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setTiledRenderingEnabled(tiledRenderingEnabled);
+            }
+        });
+    }
+
+    public boolean isTiledRenderingEnabled() {
+        return tiledRenderingEnabled;
+    }
+
+    public void addDataSet(final DataSet dataSet) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.addDataSet(dataSet);
+            }
+        });
+    }
+
+    /**
+     * Appends points to already added data set on the render thread and updates graph once for
+     * the whole batch. Points are copied, arrays may be reused after this call
+     *
+     * @param dataSet data set to append points to
+     * @param xs      X values of points
+     * @param ys      Y values of points
+     * @param offset  index of the first point in arrays
+     * @param count   number of points to append
+     */
+    public void appendPoints(final DataSet dataSet, float[] xs, float[] ys, int offset, final int count) {
+        final float[] xsCopy = new float[count];
+        final float[] ysCopy = new float[count];
+        System.arraycopy(xs, offset, xsCopy, 0, count);
+        System.arraycopy(ys, offset, ysCopy, 0, count);
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.appendPoints(dataSet, xsCopy, ysCopy, 0, count);
+            }
+        });
+    }
+
+    /**
+     * Creates feeder for appending points to the data set from a background thread. Staged points
+     * are moved to the data set on the render thread once per frame.
+     *
+     * @param dataSet  data set added to this view
+     * @param capacity max number of points staged between two frames, at most
+     *                 {@link DataSetFeeder#MAX_CAPACITY}
+     * @throws IllegalArgumentException if capacity is not positive or is too large
+     */
+    public DataSetFeeder createFeeder(DataSet dataSet, int capacity) {
+        final DataSetFeeder feeder = engine.newFeeder(dataSet, capacity);
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.addFeeder(feeder);
+            }
+        });
+        return feeder;
+    }
+
+    /**
+     * Stops publishing points of the feeder, points which are not published yet are dropped
+     */
+    public void removeFeeder(final DataSetFeeder feeder) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.removeFeeder(feeder);
+            }
+        });
+    }
+
+    /**
+     * Must be called after points were added to or removed from already added data sets
+     * on the render thread, see {@link #queueEvent(Runnable)}
+     */
+    public void notifyDataChanged() {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.notifyDataChanged();
+            }
+        });
+    }
+
+    public void scrollXBy(final float distanceX, final int duration) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.scrollXBy(distanceX, duration);
+            }
+        });
+    }
+
+    public void moveStart() {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.moveStart();
+            }
+        });
+    }
+
+    public void moveEnd() {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.moveEnd();
+            }
+        });
+    }
+
+    /**
+     * Sets formatter of X axis labels, it is called on the render thread
+     */
+    public void setXAxisFormatter(final ValueFormatter xAxisFormatter) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setXAxisFormatter(xAxisFormatter);
+            }
+        });
+    }
+
+    /**
+     * Sets formatter of the central label, it is called on the render thread
+     */
+    public void setLabelFormatter(final LabelFormatter labelFormatter) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setLabelFormatter(labelFormatter);
+            }
+        });
+    }
+
+    /**
+     * Sets formatter which writes central label into a buffer reused between frames, it is
+     * called on the render thread
+     */
+    public void setCharLabelFormatter(final CharLabelFormatter charLabelFormatter) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setCharLabelFormatter(charLabelFormatter);
+            }
+        });
+    }
+
+    /**
+     * Sets listener which receives timings and counters of every drawn frame on the render
+     * thread, pass null to stop measuring frames
+     */
+    public void setMetricsListener(final GraphMetricsListener metricsListener) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setMetricsListener(metricsListener);
+            }
+        });
+    }
+
+    public boolean isDrawCentralLine() {
+        return drawCentralLine;
+    }
+
+    public void setDrawCentralLine(final boolean drawCentralLine) {
+        this.drawCentralLine = drawCentralLine;
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setDrawCentralLine(drawCentralLine);
+            }
+        });
+    }
+
+    public boolean isDrawCentralLabel() {
+        return drawCentralLabel;
+    }
+
+    public void setDrawCentralLabel(final boolean drawCentralLabel) {
+        this.drawCentralLabel = drawCentralLabel;
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setDrawCentralLabel(drawCentralLabel);
+            }
+        });
+    }
+
+    public int getSnapDuration() {
+        return snapDuration;
+    }
+
+    public void setSnapDuration(final int snapDuration) {
+        this.snapDuration = snapDuration;
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setSnapDuration(snapDuration);
+            }
+        });
+    }
+
+    public int getScaleDuration() {
+        return scaleDuration;
+    }
+
+    public void setScaleDuration(final int scaleDuration) {
+        this.scaleDuration = scaleDuration;
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setScaleDuration(scaleDuration);
+            }
+        });
+    }
+
+    public boolean isSnapEnabled() {
+        return snapEnabled;
+    }
+
+    public void setSnapEnabled(final boolean snapEnabled) {
+        this.snapEnabled = snapEnabled;
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                engine.setSnapEnabled(snapEnabled);
+            }
+        });
+    }
+}
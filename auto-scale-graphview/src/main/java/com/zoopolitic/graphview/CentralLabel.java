@@ -0,0 +1,101 @@
+package com.zoopolitic.graphview;
+
+import android.graphics.Paint;
+
+import com.zoopolitic.graphview.formatter.LabelBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Formatted central label together with its measured width.
+ * <p>
+ * Label depends only on points closest to the central line, so it is formatted and measured once
+ * when they change and drawn from the same buffer on every other frame.
+ */
+class CentralLabel {
+
+    private final LabelBuffer buffer = new LabelBuffer();
+
+    private float maxLineWidth;
+
+    /**
+     * Copy of closest points the label was formatted for
+     */
+    private float[] keyPoints = new float[16];
+    private int     keyCount  = -1;
+
+    /**
+     * @param points closest points buffer
+     * @param count  number of floats in points buffer
+     * @return true if label was formatted for the same points
+     */
+    boolean isValid(float[] points, int count) {
+        if (keyCount != count) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (Float.floatToIntBits(keyPoints[i]) != Float.floatToIntBits(points[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remembers points label is going to be formatted for and clears the buffer
+     *
+     * @return buffer to format label to
+     */
+    LabelBuffer beginFormat(float[] points, int count) {
+        if (keyPoints.length < count) {
+            keyPoints = Arrays.copyOf(keyPoints, count);
+        }
+        System.arraycopy(points, 0, keyPoints, 0, count);
+        keyCount = count;
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Copies text formatted by {@link com.zoopolitic.graphview.formatter.LabelFormatter}
+     * into the buffer, splitting it into lines by '\n'
+     */
+    void appendText(String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                buffer.newLine();
+            } else {
+                buffer.append(c);
+            }
+        }
+    }
+
+    /**
+     * Measures width of the widest line, must be called after label was formatted
+     */
+    void measure(Paint paint) {
+        maxLineWidth = 0;
+        char[] chars = buffer.getChars();
+        for (int line = 0, count = buffer.getLineCount(); line < count; line++) {
+            int start = buffer.getLineStart(line);
+            float width = paint.measureText(chars, start, buffer.getLineEnd(line) - start);
+            maxLineWidth = Math.max(maxLineWidth, width);
+        }
+    }
+
+    void invalidate() {
+        keyCount = -1;
+    }
+
+    LabelBuffer getBuffer() {
+        return buffer;
+    }
+
+    float getMaxLineWidth() {
+        return maxLineWidth;
+    }
+}
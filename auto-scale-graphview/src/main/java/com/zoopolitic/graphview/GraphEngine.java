@@ -0,0 +1,1326 @@
+package com.zoopolitic.graphview;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.CornerPathEffect;
+import android.graphics.DashPathEffect;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.support.v4.view.GestureDetectorCompat;
+import android.support.v4.view.animation.FastOutSlowInInterpolator;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.widget.OverScroller;
+
+import com.zoopolitic.graphview.formatter.CharLabelFormatter;
+import com.zoopolitic.graphview.formatter.LabelBuffer;
+import com.zoopolitic.graphview.formatter.LabelFormatter;
+import com.zoopolitic.graphview.formatter.SimpleFormatter;
+import com.zoopolitic.graphview.formatter.SimpleLabelFormatter;
+import com.zoopolitic.graphview.formatter.ValueFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.zoopolitic.graphview.AndroidUtils.dpToPx;
+import static com.zoopolitic.graphview.AutoScaleGraphView.ADAPTIVE_QUALITY_FRAME_TIME;
+import static com.zoopolitic.graphview.AutoScaleGraphView.ADAPTIVE_QUALITY_MOTION;
+import static com.zoopolitic.graphview.AutoScaleGraphView.ADAPTIVE_QUALITY_OFF;
+import static com.zoopolitic.graphview.AutoScaleGraphView.RENDER_MODE_FULL;
+import static com.zoopolitic.graphview.AutoScaleGraphView.RENDER_MODE_LOD;
+import static com.zoopolitic.graphview.AutoScaleGraphView.RENDER_MODE_LTTB;
+import static com.zoopolitic.graphview.AutoScaleGraphView.RENDER_MODE_M4;
+
+/**
+ * State, drawing, scrolling and scaling of a graph, shared by {@link AutoScaleGraphView} and
+ * {@link AutoScaleGraphTextureView}.
+ * <p>
+ * Engine is not thread-safe: after construction all calls must be made on one thread with a
+ * {@link android.os.Looper}, the UI thread for the view and the render thread for the texture
+ * view. Host view draws frames and schedules them when asked through {@link Host}.
+ */
+class GraphEngine {
+
+    private static final String TAG = "GraphView";
+
+    /**
+     * Min number of formatted X labels kept in {@link #xLabelCache}
+     */
+    private static final int X_LABEL_CACHE_SIZE = 64;
+
+    /**
+     * View the engine draws into
+     */
+    interface Host {
+
+        /**
+         * Schedules a new frame: {@link #computeScroll()} followed by {@link #draw(Canvas)}
+         */
+        void invalidate();
+
+        /**
+         * Runs action on the engine thread before the next frame, may be called from any thread
+         */
+        void postOnAnimation(Runnable action);
+    }
+
+    private final Context context;
+    private final Host    host;
+
+    /**
+     * Size of the host view
+     */
+    private int width;
+    private int height;
+
+    private boolean snapEnabled;
+    private boolean drawCentralLine;
+    private boolean drawCentralLabel;
+
+    /**
+     * Scale animation duration
+     */
+    private int scaleDuration;
+
+    /**
+     * Snap animation duration
+     */
+    private int snapDuration;
+
+    private Paint linePaint;
+    private float graphLineWidth;
+
+    private Paint pointsPaint;
+    private int   pointRadius;
+    private int   pointClickRadius;
+
+    private int     focusedPointRadius;
+    private Paint   focusedPointPaint;
+    private int     focusedPointColor;
+    private int     focusedPointStrokeWidth;
+    private boolean drawFocusedPoints;
+
+    private Paint centralLinePaint;
+    private Path  centralLine;
+    private int   centralLineColor;
+    private int   centralLineWidth;
+    private int   centralLineDashWidth;
+    private int   centralLineGapWidth;
+
+    private Paint yAxisPaint;
+    private Paint yAxisLabelPaint;
+    private Paint xAxisLabelPaint;
+    private int   gridColor;
+    private int   gridLabelColor;
+    private int   yAxisLabelSeparation;
+    private int   xAxisLabelSeparation;
+
+    private int yAxisLabelMaxWidth;
+    private int yAxisLabelHeight;
+    private int xAxisLabelHeight;
+    private float xAxisLineHeight;
+    private int yAxisTextSize;
+    private int xAxisTextSize;
+
+    private Paint labelPaint;
+    private Paint labelTextPaint;
+    private int   labelBackgroundColor;
+    private int   labelStrokeColor;
+    private int   labelStrokeWidth;
+    private int   labelTextColor;
+    private int   labelCornerRadius;
+    private int   labelTextSize;
+    private int   labelPaddingLeft;
+    private int   labelPaddingRight;
+    private int   labelPaddingTop;
+    private int   labelPaddingBottom;
+    private int   labelCentralLineOffset;
+    private float labelLineHeight;
+    private Rect textBoundsBuffer = new Rect();
+
+    private List<DataSet> dataSets = new ArrayList<>();
+
+    /**
+     * Feeders of background producers, points from them are published once per animation frame
+     */
+    private List<DataSetFeeder> feeders = new ArrayList<>();
+
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+
+    private final Runnable scheduleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // called on producer threads
+            if (publishScheduled.compareAndSet(false, true)) {
+                host.postOnAnimation(publishRunnable);
+            }
+        }
+    };
+
+    private final Runnable publishRunnable = new Runnable() {
+        @Override
+        public void run() {
+            publishScheduled.set(false);
+            boolean changed = false;
+            for (int i = 0; i < feeders.size(); i++) {
+                changed |= feeders.get(i).publish();
+            }
+            if (changed) {
+                notifyDataChanged();
+            }
+        }
+    };
+
+    /**
+     * Cached lines of data sets, item i belongs to data set i
+     */
+    private List<LineGeometry> lineGeometries = new ArrayList<>();
+
+    private int       renderMode;
+    private Decimator decimator;
+
+    /**
+     * Render mode and decimator lines of the current frame are built with, reduced quality
+     * frames decimate lines even in {@link AutoScaleGraphView#RENDER_MODE_FULL}
+     */
+    private int       frameRenderMode;
+    private Decimator frameDecimator;
+    private final Decimator motionDecimator = new M4Decimator();
+
+    /**
+     * Quality of frames drawn while scroller or scaler animates, see
+     * {@link AutoScaleGraphView#setAdaptiveQuality(int)}
+     */
+    private int  adaptiveQuality;
+    private int  frameTimeBudget;
+    private long frameTimeBudgetNanos;
+
+    /**
+     * Duration of the last frame drawn at full quality, measured only in
+     * {@link AutoScaleGraphView#ADAPTIVE_QUALITY_FRAME_TIME}
+     */
+    private long fullQualityFrameNanos;
+    private float[]   graphPointsBuffer     = new float[]{};
+    private float[]   decimatedPointsBuffer = new float[]{};
+    private int[]     lodIndicesBuffer      = new int[]{};
+
+    /**
+     * Renders data sets into bitmap tiles in background while flinging. Created on the first frame
+     * after tiled rendering is enabled, released with the engine
+     */
+    private TileRenderer tileRenderer;
+    private boolean      tiledRenderingEnabled;
+
+    private float[] axisYLinesBuffer     = new float[]{};
+    private char[]  labelsBuffer         = new char[100];
+    private float[] axisYPositionsBuffer = new float[]{};
+    private float[] axisXPositionsBuffer = new float[]{};
+
+    private int yAxisWidth;
+
+    private StaticLayer staticLayer = new StaticLayer();
+
+    private LabelCache xLabelCache = new LabelCache(X_LABEL_CACHE_SIZE);
+
+    private ViewportManager viewportManager = new ViewportManager();
+
+    private boolean computingScroll;
+
+    private OverScroller   scroller;
+    private GraphScroller  graphScroller;
+    private VerticalScaler scaler;
+
+    private GestureDetectorCompat gestureDetector;
+
+    private ValueFormatter xAxisFormatter = new SimpleFormatter();
+    private LabelFormatter     labelFormatter;
+    private CharLabelFormatter charLabelFormatter = new SimpleLabelFormatter();
+
+    private CentralLabel centralLabel = new CentralLabel();
+
+    private GraphMetricsListener metricsListener;
+    private GraphFrameMetrics    frameMetrics = new GraphFrameMetrics();
+
+    /**
+     * Number of times drawing buffers were reallocated, and the number already reported to
+     * {@link #metricsListener}
+     */
+    private int bufferRegrowths;
+    private int reportedBufferRegrowths;
+
+    /**
+     * Points transformed to pixels since the last frame was reported
+     */
+    private int framePointsConsidered;
+
+    GraphEngine(Context context, AttributeSet attrs, int defStyleAttr, Host host) {
+        this.context = context;
+        this.host = host;
+        init(context, attrs, defStyleAttr);
+    }
+
+    private void d(String message) {
+        Log.d(TAG, message);
+    }
+
+    private void w(String message) {
+        Log.w(TAG, message);
+    }
+
+    private void i(String message) {
+        Log.i(TAG, message);
+    }
+
+    private void e(String message) {
+        Log.e(TAG, message);
+    }
+
+    void init(Context context, AttributeSet attrs, int defStyleAttr) {
+        TypedArray array = context.getTheme().obtainStyledAttributes(
+                attrs, R.styleable.AutoScaleGraphView, defStyleAttr, defStyleAttr);
+        int visibleXRange;
+        int xInterval;
+        int renderMode;
+        int adaptiveQuality;
+        int frameTimeBudget;
+        try {
+            this.snapEnabled = array.getBoolean(R.styleable.AutoScaleGraphView_snapEnabled, true);
+            this.scaleDuration = array.getInteger(R.styleable.AutoScaleGraphView_scaleDuration, 300);
+            this.snapDuration = array.getInteger(R.styleable.AutoScaleGraphView_snapDuration, 300);
+            this.focusedPointColor = array.getColor(R.styleable.AutoScaleGraphView_focusedPointColor, Color.BLACK);
+            this.focusedPointStrokeWidth = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_focusedPointStrokeWidth, (int) dpToPx(2));
+            this.drawFocusedPoints = array.getBoolean(R.styleable.AutoScaleGraphView_drawFocusedPoints, true);
+            this.graphLineWidth = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_lineWidth, (int) dpToPx(2));
+            this.pointRadius = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_pointRadius, (int) dpToPx(2));
+            this.focusedPointRadius = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_focusedPointRadius, pointRadius * 2);
+            this.pointClickRadius = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_pointClickRadius, (int) dpToPx(16));
+
+            this.labelBackgroundColor = array.getColor(R.styleable.AutoScaleGraphView_labelBackgroundColor, Color.parseColor("#B3e0e0e0"));
+            this.labelStrokeColor = array.getColor(R.styleable.AutoScaleGraphView_labelStrokeColor, Color.parseColor("#bdbdbd"));
+            this.labelStrokeWidth = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_labelStrokeWidth, (int) dpToPx(1));
+            this.labelTextColor = array.getColor(R.styleable.AutoScaleGraphView_labelTextColor, Color.BLACK);
+            this.labelCornerRadius = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_labelCornerRadius, (int) dpToPx(2));
+            this.labelTextSize = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_labelTextSize, (int) dpToPx(14));
+            this.labelPaddingLeft = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_labelPaddingLeft, (int) dpToPx(8));
+            this.labelPaddingTop = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_labelPaddingTop, (int) dpToPx(8));
+            this.labelPaddingRight = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_labelPaddingRight, (int) dpToPx(8));
+            this.labelPaddingBottom = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_labelPaddingBottom, (int) dpToPx(8));
+            this.labelCentralLineOffset = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_labelCentralLineOffset, (int) dpToPx(6));
+
+            this.centralLineWidth = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_centralLineWidth, (int) dpToPx(2));
+            this.centralLineDashWidth = array.getInt(R.styleable.AutoScaleGraphView_centralLineDashWidth, 20);
+            this.centralLineGapWidth = array.getInt(R.styleable.AutoScaleGraphView_centralLineGapWidth, 15);
+            this.centralLineColor = array.getColor(R.styleable.AutoScaleGraphView_centralLineColor, Color.LTGRAY);
+            this.drawCentralLabel = array.getBoolean(R.styleable.AutoScaleGraphView_drawCentralLabel, true);
+            this.tiledRenderingEnabled = array.getBoolean(R.styleable.AutoScaleGraphView_tiledRendering, false);
+            this.drawCentralLine = array.getBoolean(R.styleable.AutoScaleGraphView_drawCentralLine, true);
+
+            this.gridColor = array.getColor(R.styleable.AutoScaleGraphView_gridColor, Color.parseColor("#e0e0e0"));
+            this.gridLabelColor = array.getColor(R.styleable.AutoScaleGraphView_gridLabelColor, gridColor);
+            this.yAxisLabelSeparation = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_gridLabelSeparation, (int) dpToPx(6));
+            this.yAxisWidth = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_axisWidth, (int) dpToPx(1));
+            this.yAxisTextSize = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_yAxisTextSize, (int) dpToPx(12));
+            this.xAxisTextSize = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_xAxisTextSize, (int) dpToPx(12));
+            this.yAxisLabelSeparation = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_yAxisLabelSeparation, (int) dpToPx(6));
+            this.xAxisLabelSeparation = array.getDimensionPixelSize(R.styleable.AutoScaleGraphView_xAxisLabelSeparation, (int) dpToPx(12));
+            visibleXRange = array.getInt(R.styleable.AutoScaleGraphView_visibleXRange, 7);
+            xInterval = array.getInt(R.styleable.AutoScaleGraphView_xInterval, 1);
+            renderMode = array.getInt(R.styleable.AutoScaleGraphView_renderMode, RENDER_MODE_FULL);
+            adaptiveQuality = array.getInt(R.styleable.AutoScaleGraphView_adaptiveQuality, ADAPTIVE_QUALITY_OFF);
+            frameTimeBudget = array.getInt(R.styleable.AutoScaleGraphView_frameTimeBudget, 8);
+        } finally {
+            array.recycle();
+        }
+        initPaints();
+
+        scroller = new OverScroller(context, new AccelerateDecelerateInterpolator());
+        graphScroller = new OverScrollerAdapter(scroller);
+        scaler = new VerticalScaler(
+                new InterpolatorAdapter(new FastOutSlowInInterpolator()), AndroidClock.INSTANCE);
+        scaler.setScaleDuration(scaleDuration);
+        setVisibleXRange(visibleXRange);
+        setXInterval(xInterval);
+        setRenderMode(renderMode);
+        setAdaptiveQuality(adaptiveQuality);
+        setFrameTimeBudget(frameTimeBudget);
+
+        yAxisLabelHeight = (int) Math.abs(yAxisLabelPaint.getFontMetrics().top);
+        yAxisLabelMaxWidth = (int) yAxisLabelPaint.measureText("0000");
+        xAxisLineHeight = xAxisLabelPaint.descent() - xAxisLabelPaint.ascent();
+    }
+
+    public void setVisibleXRange(int visibleXRange) {
+        viewportManager.setVisibleXRange(visibleXRange);
+        xLabelCache.ensureCapacity(visibleXRange * 2);
+        host.invalidate();
+    }
+
+    public void setXInterval(int xInterval) {
+        viewportManager.setXInterval(xInterval);
+        host.invalidate();
+    }
+
+    /**
+     * Sets how lines of data sets are drawn
+     *
+     * @param renderMode one of {@link AutoScaleGraphView#RENDER_MODE_FULL},
+     *                   {@link AutoScaleGraphView#RENDER_MODE_LTTB},
+     *                   {@link AutoScaleGraphView#RENDER_MODE_M4},
+     *                   {@link AutoScaleGraphView#RENDER_MODE_LOD}
+     */
+    public void setRenderMode(int renderMode) {
+        switch (renderMode) {
+            case RENDER_MODE_FULL:
+                decimator = null;
+                break;
+            case RENDER_MODE_LTTB:
+                decimator = new LttbDecimator();
+                break;
+            case RENDER_MODE_M4:
+            case RENDER_MODE_LOD:
+                // LOD falls back to M4 for ranges and data sets the pyramid doesn't cover
+                decimator = new M4Decimator();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown render mode: " + renderMode);
+        }
+        this.renderMode = renderMode;
+        this.frameRenderMode = renderMode;
+        this.frameDecimator = decimator;
+        host.invalidate();
+    }
+
+    public int getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * Sets quality of frames drawn while the graph is flung, snapped, scrolled by animation or
+     * scaled. Reduced quality frames draw lines without antialiasing, decimate them as in
+     * {@link AutoScaleGraphView#RENDER_MODE_M4} if they are not decimated already, and skip
+     * points and focused circles. One full quality frame is drawn once animations finish.
+     *
+     * @param adaptiveQuality one of {@link AutoScaleGraphView#ADAPTIVE_QUALITY_OFF},
+     *                        {@link AutoScaleGraphView#ADAPTIVE_QUALITY_MOTION},
+     *                        {@link AutoScaleGraphView#ADAPTIVE_QUALITY_FRAME_TIME}
+     */
+    public void setAdaptiveQuality(int adaptiveQuality) {
+        switch (adaptiveQuality) {
+            case ADAPTIVE_QUALITY_OFF:
+            case ADAPTIVE_QUALITY_MOTION:
+            case ADAPTIVE_QUALITY_FRAME_TIME:
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown adaptive quality: " + adaptiveQuality);
+        }
+        this.adaptiveQuality = adaptiveQuality;
+        fullQualityFrameNanos = 0;
+        host.invalidate();
+    }
+
+    public int getAdaptiveQuality() {
+        return adaptiveQuality;
+    }
+
+    /**
+     * Sets max time in milliseconds a full quality frame may take in
+     * {@link AutoScaleGraphView#ADAPTIVE_QUALITY_FRAME_TIME} before animation frames are reduced
+     */
+    public void setFrameTimeBudget(int frameTimeBudget) {
+        if (frameTimeBudget < 0) {
+            throw new IllegalArgumentException("Frame time budget must not be negative: " + frameTimeBudget);
+        }
+        this.frameTimeBudget = frameTimeBudget;
+        this.frameTimeBudgetNanos = frameTimeBudget * 1000000L;
+    }
+
+    public int getFrameTimeBudget() {
+        return frameTimeBudget;
+    }
+
+    /**
+     * Enables drawing of data sets from bitmap tiles rendered on a background thread while the
+     * graph is flung or scrolled by animation, so such frames only blit bitmaps. Tiles take
+     * about {@code 4 * height} bytes per pixel column of a few view widths, disabled by default
+     */
+    public void setTiledRenderingEnabled(boolean tiledRenderingEnabled) {
+        this.tiledRenderingEnabled = tiledRenderingEnabled;
+        if (!tiledRenderingEnabled) {
+            releaseTileRenderer();
+        }
+        host.invalidate();
+    }
+
+    public boolean isTiledRenderingEnabled() {
+        return tiledRenderingEnabled;
+    }
+
+    private TileRenderer createTileRenderer() {
+        TileRenderer.LineBuilder lineBuilder = new TileRenderer.LineBuilder() {
+            @Override
+            public void buildLines(DataSet dataSet, float left, float right, int width, LineGeometry geometry) {
+                fillLines(dataSet, left, right, width, geometry);
+            }
+        };
+        Runnable invalidate = new Runnable() {
+            @Override
+            public void run() {
+                host.invalidate();
+            }
+        };
+        return new TileRenderer(lineBuilder, invalidate, linePaint, pointsPaint, pointRadius);
+    }
+
+    private void releaseTileRenderer() {
+        if (tileRenderer != null) {
+            tileRenderer.release();
+            tileRenderer = null;
+        }
+    }
+
+    /**
+     * Releases background resources, engine can still be used after that
+     */
+    void release() {
+        releaseTileRenderer();
+    }
+
+    @SuppressWarnings("PointlessArithmeticExpression")
+    public void addDataSet(DataSet dataSet) {
+        this.dataSets.add(dataSet);
+        this.lineGeometries.add(new LineGeometry());
+        viewportManager.calculateMinMax(dataSet);
+        viewportManager.computeClosestPoints(dataSets);
+        viewportManager.computeXAxis();
+        scale();
+        host.invalidate();
+    }
+
+    /**
+     * Appends points to already added data set and updates graph once for the whole batch:
+     * one bounds recalculation, one auto scale and one invalidate
+     *
+     * @param dataSet data set to append points to
+     * @param xs      X values of points
+     * @param ys      Y values of points
+     * @param offset  index of the first point in arrays
+     * @param count   number of points to append
+     */
+    public void appendPoints(DataSet dataSet, float[] xs, float[] ys, int offset, int count) {
+        dataSet.addPoints(xs, ys, offset, count);
+        notifyDataChanged();
+    }
+
+    /**
+     * Creates feeder for appending points to the data set from a background thread. Staged points
+     * are moved to the data set on the engine thread once per animation frame.
+     *
+     * @param dataSet  already added data set
+     * @param capacity max number of points staged between two frames, at most
+     *                 {@link DataSetFeeder#MAX_CAPACITY}
+     * @throws IllegalArgumentException if capacity is not positive or is too large
+     */
+    public DataSetFeeder createFeeder(DataSet dataSet, int capacity) {
+        DataSetFeeder feeder = newFeeder(dataSet, capacity);
+        addFeeder(feeder);
+        return feeder;
+    }
+
+    /**
+     * Creates feeder which is not published yet, may be called from any thread
+     */
+    DataSetFeeder newFeeder(DataSet dataSet, int capacity) {
+        return new DataSetFeeder(dataSet, capacity, scheduleRunnable);
+    }
+
+    /**
+     * Starts publishing points of the feeder created by {@link #newFeeder(DataSet, int)}
+     */
+    void addFeeder(DataSetFeeder feeder) {
+        feeders.add(feeder);
+    }
+
+    /**
+     * Stops publishing points of the feeder, points which are not published yet are dropped
+     */
+    public void removeFeeder(DataSetFeeder feeder) {
+        feeders.remove(feeder);
+    }
+
+    /**
+     * Must be called after points were added to or removed from already added data sets.
+     * Recalculates bounds of the graph, so they shrink right away after history was trimmed
+     */
+    public void notifyDataChanged() {
+        viewportManager.calculateMinMax(dataSets);
+        viewportManager.computeClosestPoints(dataSets);
+        viewportManager.computeXAxis();
+        scale();
+        host.invalidate();
+    }
+
+    private void initPaints() {
+        linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(graphLineWidth);
+        linePaint.setAlpha((int) (0.75f * 255));
+
+        pointsPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        pointsPaint.setStyle(Paint.Style.FILL);
+        pointsPaint.setStrokeCap(Paint.Cap.ROUND);
+        pointsPaint.setStrokeWidth(pointRadius * 2);
+
+        focusedPointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        focusedPointPaint.setStyle(Paint.Style.STROKE);
+        focusedPointPaint.setColor(focusedPointColor);
+        focusedPointPaint.setStrokeCap(Paint.Cap.ROUND);
+        focusedPointPaint.setStrokeWidth(focusedPointStrokeWidth);
+
+        centralLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        centralLinePaint.setStyle(Paint.Style.STROKE);
+        centralLinePaint.setColor(centralLineColor);
+        centralLinePaint.setStrokeCap(Paint.Cap.ROUND);
+        centralLinePaint.setStrokeWidth(centralLineWidth);
+        centralLinePaint.setPathEffect(new DashPathEffect(new float[]{centralLineDashWidth, centralLineGapWidth}, 0));
+
+        yAxisPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        yAxisPaint.setStyle(Paint.Style.STROKE);
+        yAxisPaint.setColor(gridColor);
+        yAxisPaint.setStrokeWidth(yAxisWidth);
+
+        yAxisLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        yAxisLabelPaint.setStyle(Paint.Style.STROKE);
+        yAxisLabelPaint.setColor(gridLabelColor);
+        yAxisLabelPaint.setTextSize(yAxisTextSize);
+        yAxisLabelPaint.setTextAlign(Paint.Align.RIGHT);
+
+        xAxisLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        xAxisLabelPaint.setStyle(Paint.Style.STROKE);
+        xAxisLabelPaint.setColor(gridLabelColor);
+        xAxisLabelPaint.setTextSize(xAxisTextSize);
+        xAxisLabelPaint.setTextAlign(Paint.Align.CENTER);
+
+        labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        labelPaint.setPathEffect(new CornerPathEffect(labelCornerRadius));
+        labelPaint.setStrokeWidth(labelStrokeWidth);
+
+        labelTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        labelTextPaint.setStyle(Paint.Style.STROKE);
+        labelTextPaint.setColor(labelTextColor);
+        labelTextPaint.setTextSize(labelTextSize);
+        labelTextPaint.setTextAlign(Paint.Align.LEFT);
+        labelTextPaint.getTextBounds("A", 0, 1, textBoundsBuffer);
+        labelLineHeight = textBoundsBuffer.height();
+    }
+
+    /**
+     * Must be called when size or padding of the host view change
+     */
+    void onSizeChanged(int width, int height, int paddingLeft, int paddingTop, int paddingRight,
+                       int paddingBottom) {
+        this.width = width;
+        this.height = height;
+        viewportManager.constrainDrawRect(
+                paddingLeft,
+                paddingTop,
+                width - paddingRight,
+                height - paddingBottom
+        );
+        if (snapEnabled) {
+            snapToClosestPoint();
+        }
+        scale();
+        host.invalidate();
+    }
+
+    void draw(Canvas canvas) {
+        boolean reducedQuality = isReducedQualityFrame();
+        long qualityFrameStart = adaptiveQuality == ADAPTIVE_QUALITY_FRAME_TIME ? System.nanoTime() : 0;
+
+        GraphFrameMetrics metrics = metricsListener != null ? frameMetrics : null;
+        long frameStart = 0;
+        long time = 0;
+        if (metrics != null) {
+            metrics.reset();
+            metrics.reducedQuality = reducedQuality;
+            frameStart = time = System.nanoTime();
+        }
+
+        int closestPointsExamined = viewportManager.computeClosestPoints(dataSets);
+        if (metrics != null) {
+            metrics.pointsConsidered += closestPointsExamined;
+            long now = System.nanoTime();
+            metrics.computeClosestPointsNanos = now - time;
+            time = now;
+        }
+
+        drawStaticLayer(canvas);
+        drawXAxis(canvas);
+        if (metrics != null) {
+            long now = System.nanoTime();
+            metrics.drawAxesNanos = now - time;
+            time = now;
+        }
+
+        if (tiledRenderingEnabled && tileRenderer == null) {
+            tileRenderer = createTileRenderer();
+        }
+        // applied after tile renderer copied line paint, so tiles keep antialiasing
+        applyQuality(reducedQuality);
+        // tiles are used only while scroller moves the viewport and vertical scale stays the same
+        boolean drawnFromTiles = tileRenderer != null && !scroller.isFinished() && scaler.isFinished()
+                && tileRenderer.draw(canvas, viewportManager, dataSets, frameRenderMode, getGraphBottomOffset(), height);
+        if (drawnFromTiles && metrics != null) {
+            long now = System.nanoTime();
+            metrics.drawDataSetNanos = now - time;
+            time = now;
+        }
+        for (int i = 0; i < dataSets.size() && !drawnFromTiles; i++) {
+            DataSet dataSet = dataSets.get(i);
+            LineGeometry geometry = obtainLineGeometry(dataSet, lineGeometries.get(i));
+            drawDataSet(canvas, dataSet, geometry);
+            if (metrics != null) {
+                long now = System.nanoTime();
+                metrics.drawDataSetNanos += now - time;
+                time = now;
+                metrics.segmentsEmitted += geometry.lineCount;
+            }
+            if (!reducedQuality) {
+                drawPoints(canvas, dataSet, geometry);
+            }
+            if (metrics != null) {
+                long now = System.nanoTime();
+                metrics.drawPointsNanos += now - time;
+                time = now;
+            }
+        }
+        if (drawFocusedPoints && !reducedQuality) {
+            drawFocusedCircles(canvas);
+            if (metrics != null) {
+                long now = System.nanoTime();
+                metrics.drawFocusedCirclesNanos = now - time;
+                time = now;
+            }
+        }
+
+        if (drawCentralLabel) {
+            drawDataLabel(canvas);
+            if (metrics != null) {
+                long now = System.nanoTime();
+                metrics.drawDataLabelNanos = now - time;
+                time = now;
+            }
+        }
+
+        if (metrics != null) {
+            metrics.totalNanos = time - frameStart;
+            metrics.pointsConsidered += framePointsConsidered;
+            int regrowths = bufferRegrowths + viewportManager.bufferRegrowths;
+            metrics.bufferRegrowths = regrowths - reportedBufferRegrowths;
+            reportedBufferRegrowths = regrowths;
+            framePointsConsidered = 0;
+            metricsListener.onFrameMetrics(metrics);
+        }
+
+        if (adaptiveQuality == ADAPTIVE_QUALITY_FRAME_TIME && !reducedQuality) {
+            fullQualityFrameNanos = System.nanoTime() - qualityFrameStart;
+        }
+        if (reducedQuality) {
+            // animations may finish without invalidating, settled graph is drawn at full quality
+            host.invalidate();
+        }
+    }
+
+    /**
+     * @return true if the current frame is drawn at reduced quality according to
+     * {@link #adaptiveQuality}
+     */
+    private boolean isReducedQualityFrame() {
+        if (adaptiveQuality == ADAPTIVE_QUALITY_OFF || (scroller.isFinished() && scaler.isFinished())) {
+            return false;
+        }
+        // cost of the last full quality frame is measured again on the first frame after animations
+        return adaptiveQuality == ADAPTIVE_QUALITY_MOTION || fullQualityFrameNanos > frameTimeBudgetNanos;
+    }
+
+    private void applyQuality(boolean reducedQuality) {
+        linePaint.setAntiAlias(!reducedQuality);
+        if (reducedQuality && decimator == null) {
+            frameRenderMode = RENDER_MODE_M4;
+            frameDecimator = motionDecimator;
+        } else {
+            frameRenderMode = renderMode;
+            frameDecimator = decimator;
+        }
+    }
+
+    private void drawPoints(Canvas canvas, DataSet dataSet, LineGeometry geometry) {
+        int clipRestoreCount = canvas.save();
+        canvas.clipRect(
+                viewportManager.contentRect.left,
+                viewportManager.contentRect.top,
+                viewportManager.contentRect.right,
+                viewportManager.contentRect.bottom - getGraphBottomOffset() + pointRadius
+        );
+        canvas.translate(geometry.getTranslationX(viewportManager), 0);
+        pointsPaint.setColor(dataSet.getPointColor());
+        canvas.drawPoints(geometry.lines, 0, geometry.lineCount * 4, pointsPaint);
+        canvas.restoreToCount(clipRestoreCount);
+    }
+
+    /**
+     * Draws Y axis and central line, replaying recorded {@link #staticLayer} if possible
+     */
+    private void drawStaticLayer(Canvas canvas) {
+        boolean centralLineVisible = !dataSets.isEmpty() && drawCentralLine;
+        if (!StaticLayer.isSupported(canvas)) {
+            drawStaticLayerContent(canvas, centralLineVisible);
+            return;
+        }
+        float bottomOffset = getGraphBottomOffset();
+        if (!staticLayer.isValid(viewportManager, bottomOffset, centralLineVisible)) {
+            Canvas recordingCanvas = staticLayer.beginRecording(
+                    viewportManager, bottomOffset, centralLineVisible, width, height);
+            drawStaticLayerContent(recordingCanvas, centralLineVisible);
+            staticLayer.endRecording();
+        }
+        staticLayer.draw(canvas);
+    }
+
+    private void drawStaticLayerContent(Canvas canvas, boolean centralLineVisible) {
+        drawYAxis(canvas);
+        if (centralLineVisible) {
+            drawCentralLine(canvas);
+        }
+    }
+
+    private void drawYAxis(Canvas canvas) {
+        AxisStops yStops = viewportManager.yStops;
+        if (axisYLinesBuffer.length < yStops.numStops * 4) {
+            axisYLinesBuffer = new float[yStops.numStops * 4];
+            bufferRegrowths++;
+        }
+
+        if (axisYPositionsBuffer.length < yStops.numStops) {
+            axisYPositionsBuffer = new float[yStops.numStops];
+            bufferRegrowths++;
+        }
+
+        for (int i = 0; i < yStops.numStops; i++) {
+            axisYPositionsBuffer[i] = viewportManager.getDrawY(yStops.stops[i]);
+        }
+
+        int left = viewportManager.contentRect.left + yAxisLabelMaxWidth + yAxisLabelSeparation;
+        for (int i = 0; i < yStops.numStops; i++) {
+            //noinspection PointlessArithmeticExpression
+            axisYLinesBuffer[i * 4 + 0] = left;
+            axisYLinesBuffer[i * 4 + 1] = axisYPositionsBuffer[i];
+            axisYLinesBuffer[i * 4 + 2] = viewportManager.contentRect.right;
+            axisYLinesBuffer[i * 4 + 3] = axisYPositionsBuffer[i];
+        }
+        canvas.drawLines(axisYLinesBuffer, 0, yStops.numStops * 4, yAxisPaint);
+
+        // draw Y labels
+        int labelLength;
+        int labelOffset;
+        for (int i = 0; i < yStops.numStops; i++) {
+            labelLength = AndroidUtils.formatFloat(labelsBuffer, yStops.stops[i], 0);
+            labelOffset = labelsBuffer.length - labelLength;
+            canvas.drawText(
+                    labelsBuffer, labelOffset, labelLength,
+                    viewportManager.contentRect.left + yAxisLabelMaxWidth,
+                    axisYPositionsBuffer[i] + yAxisLabelHeight * 1f / 4,
+                    yAxisLabelPaint);
+        }
+    }
+
+    private void drawXAxis(Canvas canvas) {
+        AxisStops xStops = viewportManager.xStops;
+        if (axisXPositionsBuffer.length < xStops.numStops) {
+            axisXPositionsBuffer = new float[xStops.numStops];
+            bufferRegrowths++;
+        }
+
+        for (int i = 0; i < xStops.numStops; i++) {
+            axisXPositionsBuffer[i] = viewportManager.getDrawX(xStops.stops[i]);
+        }
+
+        boolean needInitialScale = xAxisLabelHeight == 0;
+        // draw X labels
+        for (int i = 0; i < xStops.numStops; i++) {
+            float stop = xStops.stops[i];
+            int slot = xLabelCache.indexOf(stop);
+            if (slot < 0) {
+                String text = xAxisFormatter.getFormattedValue(stop);
+                String[] lines = text == null ? null : text.split("\n");
+                float height = lines == null ? 0 : xAxisLineHeight * lines.length;
+                slot = xLabelCache.put(stop, lines, height);
+            }
+            String[] lines = xLabelCache.getLines(slot);
+            if (lines == null) {
+                return;
+            }
+            float totalHeight = xLabelCache.getHeight(slot);
+            xAxisLabelHeight = Math.max(xAxisLabelHeight, (int) totalHeight); // check for "tallest" label
+            float y = viewportManager.contentRect.bottom - xAxisLabelSeparation - totalHeight / 2;
+            for (String line : lines) {
+                canvas.drawText(line, axisXPositionsBuffer[i], y, xAxisLabelPaint);
+                y += xAxisLineHeight;
+            }
+        }
+        // here label height is calculated
+        if (needInitialScale) {
+            scale();
+        }
+    }
+
+    private float getGraphBottomOffset() {
+        return xAxisLabelHeight + xAxisLabelSeparation * 2;
+    }
+
+    private void drawDataLabel(Canvas canvas) {
+        float x = viewportManager.contentRect.centerX();
+        float y = viewportManager.contentRect.centerY();
+        float[] points = viewportManager.closestPointsBuffer;
+        int count = viewportManager.closestPointsCount * 2;
+        if (!centralLabel.isValid(points, count)) {
+            LabelBuffer buffer = centralLabel.beginFormat(points, count);
+            if (charLabelFormatter != null) {
+                charLabelFormatter.format(points, count, buffer);
+            } else {
+                centralLabel.appendText(labelFormatter.getFormattedValue(points, count));
+            }
+            centralLabel.measure(labelTextPaint);
+        }
+        LabelBuffer buffer = centralLabel.getBuffer();
+        int lineCount = buffer.getLineCount();
+        if (lineCount == 0) {
+            return;
+        }
+
+        float oneLineHeight = labelLineHeight;
+        float divider = oneLineHeight * 0.5f;
+        float totalHeight = oneLineHeight * lineCount;
+        totalHeight += divider * (lineCount - 1);
+
+        float textWidth = centralLabel.getMaxLineWidth();
+
+        // draw background
+        labelPaint.setStyle(Paint.Style.FILL);
+        labelPaint.setColor(labelBackgroundColor);
+        float left = x + labelCentralLineOffset;
+        float top = y - totalHeight / 2 - labelPaddingTop;
+        float right = left + textWidth + labelPaddingRight + labelPaddingLeft;
+        float bottom = y + totalHeight / 2 + labelPaddingBottom;
+        canvas.drawRect(left, top, right, bottom, labelPaint);
+
+        // draw stroke
+        labelPaint.setStyle(Paint.Style.STROKE);
+        labelPaint.setColor(labelStrokeColor);
+        canvas.drawRect(left, top, right, bottom, labelPaint);
+
+        // draw label
+        float h = lineCount == 1 ? 0 : totalHeight / 2;
+        float textY = y - h + (lineCount == 1 ? oneLineHeight / 2 : oneLineHeight);
+        char[] chars = buffer.getChars();
+        for (int line = 0; line < lineCount; line++) {
+            int start = buffer.getLineStart(line);
+            canvas.drawText(chars, start, buffer.getLineEnd(line) - start,
+                    x + labelCentralLineOffset + labelPaddingLeft, textY, labelTextPaint);
+            textY += (oneLineHeight + divider);
+        }
+    }
+
+    private void drawFocusedCircles(Canvas canvas) {
+        int clipRestoreCount = canvas.save();
+        canvas.clipRect(
+                viewportManager.contentRect.left,
+                viewportManager.contentRect.top,
+                viewportManager.contentRect.right,
+                viewportManager.contentRect.bottom - getGraphBottomOffset() + focusedPointRadius + focusedPointStrokeWidth
+        );
+
+        float centerX = viewportManager.contentRect.centerX();
+        int size = viewportManager.closestPointsCount * 2;
+        for (int i = 0; i < size; i += 2) {
+            float x = viewportManager.getDrawX(viewportManager.closestPointsBuffer[i]);
+            float y = viewportManager.getDrawY(viewportManager.closestPointsBuffer[i + 1]);
+            float distance = Math.abs(Math.round(x - centerX));
+            if (distance <= pointRadius) {
+                float fraction = distance / pointRadius;
+                float currRadius = (1 - fraction) * focusedPointRadius;
+                currRadius = Math.max(pointRadius - focusedPointStrokeWidth, currRadius);
+                canvas.drawCircle(x, y, currRadius, focusedPointPaint);
+            }
+        }
+
+        canvas.restoreToCount(clipRestoreCount);
+    }
+
+    private void drawCentralLine(Canvas canvas) {
+        if (centralLine == null) {
+            centralLine = new Path();
+        }
+        // rebuilt every time, drawing rect might have changed since the last recording
+        float x = viewportManager.contentRect.centerX();
+        centralLine.rewind();
+        centralLine.moveTo(x, 0);
+        centralLine.lineTo(x, viewportManager.contentRect.bottom);
+        int clipRestoreCount = canvas.save();
+        canvas.clipRect(
+                viewportManager.contentRect.left,
+                viewportManager.contentRect.top,
+                viewportManager.contentRect.right,
+                viewportManager.contentRect.bottom - getGraphBottomOffset()
+        );
+        canvas.drawPath(centralLine, centralLinePaint);
+        canvas.restoreToCount(clipRestoreCount);
+    }
+
+    /**
+     * Returns lines of the data set for the current frame. Lines are rebuilt only if cached ones
+     * can't be reused by translation, see {@link LineGeometry}
+     */
+    private LineGeometry obtainLineGeometry(DataSet dataSet, LineGeometry geometry) {
+        if (geometry.isValid(dataSet, viewportManager, frameRenderMode)) {
+            return geometry;
+        }
+        // build lines for viewport extended by its width to each side, plus one point on each side
+        // of it, so lines reach edges of the drawing rect
+        float left = viewportManager.left();
+        float right = viewportManager.right();
+        float viewportWidth = right - left;
+        float coveredLeft = left - viewportWidth;
+        float coveredRight = right + viewportWidth;
+        fillLines(dataSet, coveredLeft, coveredRight, viewportManager.contentRect.width() * 3, geometry);
+        geometry.setKey(dataSet, viewportManager, frameRenderMode);
+        if (dataSet.isSorted()) {
+            geometry.coveredLeft = coveredLeft;
+            geometry.coveredRight = coveredRight;
+        } else {
+            geometry.coveredLeft = Float.NEGATIVE_INFINITY;
+            geometry.coveredRight = Float.POSITIVE_INFINITY;
+        }
+        return geometry;
+    }
+
+    /**
+     * Writes lines through points of the data set with X within [left, right] range, plus one
+     * point on each side of it, transformed to pixels and reduced according to {@link #frameRenderMode}
+     *
+     * @param width width of the range in pixels
+     */
+    private void fillLines(DataSet dataSet, float left, float right, int width, LineGeometry geometry) {
+        viewportManager.computeRange(dataSet, left, right, 1);
+        int from = viewportManager.visibleFrom;
+        int to = viewportManager.visibleTo;
+        int size = to - from;
+        // lines of the next window to either side are likely to be built soon
+        dataSet.prefetch(from - size, to + size);
+
+        LodPyramid pyramid = frameRenderMode == RENDER_MODE_LOD && dataSet.isSorted() ? dataSet.getLodPyramid() : null;
+        int lodLevel = pyramid != null ? pyramid.levelFor(from, to, width) : -1;
+        if (lodLevel >= 0) {
+            fillLodLines(dataSet, pyramid, lodLevel, from, to, geometry);
+        } else if (frameDecimator != null && dataSet.isSorted() && size > width) {
+            framePointsConsidered += size;
+            fillDecimatedLines(dataSet, from, to, width, geometry);
+        } else {
+            framePointsConsidered += size;
+            if (geometry.ensureCapacity(size - 1)) {
+                bufferRegrowths++;
+            }
+            geometry.lineCount = viewportManager.fillDrawLines(dataSet, from, to, geometry.lines);
+        }
+    }
+
+    private void drawDataSet(Canvas canvas, DataSet dataSet, LineGeometry geometry) {
+        int clipRestoreCount = canvas.save();
+        canvas.clipRect(
+                viewportManager.contentRect.left,
+                viewportManager.contentRect.top,
+                viewportManager.contentRect.right,
+                viewportManager.contentRect.bottom - getGraphBottomOffset()
+        );
+        canvas.translate(geometry.getTranslationX(viewportManager), 0);
+
+        linePaint.setColor(dataSet.getLineColor());
+        canvas.drawLines(geometry.lines, 0, geometry.lineCount * 4, linePaint);
+
+        canvas.restoreToCount(clipRestoreCount);
+    }
+
+    /**
+     * Transforms points within [from, to) range to pixels, decimates them with {@link #frameDecimator}
+     * and writes remaining points as lines to the geometry
+     */
+    @SuppressWarnings("PointlessArithmeticExpression")
+    private void fillDecimatedLines(DataSet dataSet, int from, int to, int width, LineGeometry geometry) {
+        int size = to - from;
+        if (graphPointsBuffer.length < size * 2) {
+            graphPointsBuffer = new float[size * 2];
+            bufferRegrowths++;
+        }
+        if (decimatedPointsBuffer.length < size * 2) {
+            decimatedPointsBuffer = new float[size * 2];
+            bufferRegrowths++;
+        }
+        viewportManager.fillDrawPoints(dataSet, from, to, graphPointsBuffer);
+
+        int count = frameDecimator.decimate(graphPointsBuffer, size, decimatedPointsBuffer, width);
+
+        if (geometry.ensureCapacity(count - 1)) {
+            bufferRegrowths++;
+        }
+        float[] lines = geometry.lines;
+        int lineCount = 0;
+        for (int i = 0; i < count - 1; i++, lineCount++) {
+            lines[i * 4 + 0] = decimatedPointsBuffer[i * 2 + 0];
+            lines[i * 4 + 1] = decimatedPointsBuffer[i * 2 + 1];
+            lines[i * 4 + 2] = decimatedPointsBuffer[i * 2 + 2];
+            lines[i * 4 + 3] = decimatedPointsBuffer[i * 2 + 3];
+        }
+        geometry.lineCount = lineCount;
+    }
+
+    /**
+     * Writes lines through points representing buckets of the pyramid level within [from, to) range
+     */
+    private void fillLodLines(DataSet dataSet, LodPyramid pyramid, int level, int from, int to, LineGeometry geometry) {
+        int maxPoints = pyramid.maxPoints(level, from, to);
+        if (lodIndicesBuffer.length < maxPoints) {
+            lodIndicesBuffer = new int[maxPoints];
+            bufferRegrowths++;
+        }
+        int count = pyramid.collect(dataSet, level, from, to, lodIndicesBuffer);
+        framePointsConsidered += count;
+        if (geometry.ensureCapacity(count - 1)) {
+            bufferRegrowths++;
+        }
+        geometry.lineCount = viewportManager.fillDrawLines(dataSet, lodIndicesBuffer, count, geometry.lines);
+    }
+
+    public void scale() {
+        viewportManager.autoScale(scaler, getGraphBottomOffset(), dataSets);
+    }
+
+    public void snapToClosestPoint() {
+        viewportManager.snapToClosestIndex(graphScroller, snapDuration);
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                      Scrolling                                             //
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+    /**
+     * Advances scroll and scale animations, must be called before every frame
+     */
+    void computeScroll() {
+        boolean needInvalidate = false;
+        if (scroller.computeScrollOffset()) {
+            computingScroll = true;
+
+            viewportManager.computeXAxis();
+            viewportManager.computeScrollSurfaceSize();
+            int x = scroller.getCurrX();
+            int y = scroller.getCurrY();
+
+            // scroll finished
+            if (x == scroller.getFinalX() && viewportManager.scrollInProgress) {
+                scale();
+            }
+            viewportManager.move(viewportManager.currentXRange(x));
+            needInvalidate = true;
+            host.invalidate();
+        } else {
+            // previous state was computing and current is not computing means that fling finished
+            if (computingScroll && viewportManager.isFling()) {
+                viewportManager.setFling(false);
+                computingScroll = false;
+                if (snapEnabled) {
+                    snapToClosestPoint();
+                } else {
+                    scale();
+                }
+                needInvalidate = true;
+            }
+        }
+
+        float newMinY = scaler.getCurrMinY();
+        float newMaxY = scaler.getCurrMaxY();
+        if (scaler.computeYScale() ||
+                ((newMinY != 0 && viewportManager.top() != newMinY) // check to set final value for minY
+                        || (newMaxY != 0 && viewportManager.bottom() != newMaxY))) {  // check to set final value for maxY
+            viewportManager.setTop(newMinY);
+            viewportManager.setBottom(newMaxY);
+            needInvalidate = true;
+        }
+        if (needInvalidate) {
+            host.invalidate();
+        }
+    }
+
+    /**
+     * @return true if event was consumed
+     */
+    boolean onTouchEvent(MotionEvent event) {
+        if (gestureDetector == null) {
+            // created lazily on the engine thread as detector posts its messages to looper of this thread
+            gestureDetector = new GestureDetectorCompat(context, gestureListener);
+        }
+        boolean retValue = gestureDetector.onTouchEvent(event);
+        if (event.getAction() == MotionEvent.ACTION_UP && !retValue) {
+            if (!viewportManager.clickedOnMarker(event.getX(), event.getY(), pointClickRadius,
+                    graphScroller, snapDuration, dataSets)) {
+                if (snapEnabled) {
+                    snapToClosestPoint();
+                } else {
+                    scale();
+                }
+            }
+            host.invalidate();
+        }
+        return retValue;
+    }
+
+    private GestureDetector.OnGestureListener gestureListener = new GestureDetector.SimpleOnGestureListener() {
+
+        @Override
+        public boolean onDown(MotionEvent e) {
+            scroller.forceFinished(true);
+            viewportManager.setFling(false);
+            return true;
+        }
+
+        @Override
+        public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+            viewportManager.onScroll(distanceX, distanceY);
+            host.invalidate();
+            return true;
+        }
+
+        @Override
+        public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+            viewportManager.fling(graphScroller, (int) -velocityX, (int) -velocityY);
+            host.invalidate();
+            return true;
+        }
+
+        @Override
+        public void onLongPress(MotionEvent e) {
+            super.onLongPress(e);
+            i("long press");
+        }
+    };
+
+    public void scrollXBy(float distanceX, int duration) {
+        viewportManager.scrollXBy(graphScroller, distanceX, duration);
+        host.invalidate();
+    }
+
+    public void moveStart() {
+        viewportManager.moveStart();
+        scale();
+        host.invalidate();
+    }
+
+    public void moveEnd() {
+        viewportManager.moveEnd();
+        scale();
+        host.invalidate();
+    }
+
+    public void setXAxisFormatter(ValueFormatter xAxisFormatter) {
+        this.xAxisFormatter = xAxisFormatter;
+        xLabelCache.clear();
+        host.invalidate();
+    }
+
+    /**
+     * Sets formatter of the central label. Formatter returns new string every time points closest
+     * to the central line change, use {@link #setCharLabelFormatter(CharLabelFormatter)} to
+     * format label without allocations
+     */
+    public void setLabelFormatter(LabelFormatter labelFormatter) {
+        this.labelFormatter = labelFormatter;
+        this.charLabelFormatter = null;
+        centralLabel.invalidate();
+        host.invalidate();
+    }
+
+    /**
+     * Sets formatter which writes central label into a buffer reused between frames
+     */
+    public void setCharLabelFormatter(CharLabelFormatter charLabelFormatter) {
+        this.charLabelFormatter = charLabelFormatter;
+        this.labelFormatter = null;
+        centralLabel.invalidate();
+        host.invalidate();
+    }
+
+    /**
+     * Sets listener which receives timings and counters of every drawn frame, pass null to
+     * stop measuring frames
+     */
+    public void setMetricsListener(GraphMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        reportedBufferRegrowths = bufferRegrowths + viewportManager.bufferRegrowths;
+        framePointsConsidered = 0;
+    }
+
+    public boolean isDrawCentralLine() {
+        return drawCentralLine;
+    }
+
+    public void setDrawCentralLine(boolean drawCentralLine) {
+        this.drawCentralLine = drawCentralLine;
+        staticLayer.invalidate();
+        host.invalidate();
+    }
+
+    public boolean isDrawCentralLabel() {
+        return drawCentralLabel;
+    }
+
+    public void setDrawCentralLabel(boolean drawCentralLabel) {
+        this.drawCentralLabel = drawCentralLabel;
+        host.invalidate();
+    }
+
+    public int getSnapDuration() {
+        return snapDuration;
+    }
+
+    public void setSnapDuration(int snapDuration) {
+        this.snapDuration = snapDuration;
+        host.invalidate();
+    }
+
+    public int getScaleDuration() {
+        return scaleDuration;
+    }
+
+    public void setScaleDuration(int scaleDuration) {
+        this.scaleDuration = scaleDuration;
+        this.scaler.setScaleDuration(scaleDuration);
+        host.invalidate();
+    }
+
+    public boolean isSnapEnabled() {
+        return snapEnabled;
+    }
+
+    public void setSnapEnabled(boolean snapEnabled) {
+        this.snapEnabled = snapEnabled;
+        host.invalidate();
+    }
+}
@@ -0,0 +1,72 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Timings and counters of one frame reported to {@link GraphMetricsListener}
+ */
+public class GraphFrameMetrics {
+
+    /**
+     * Time spent to find points closest to the central line
+     */
+    public long computeClosestPointsNanos;
+
+    /**
+     * Time spent to draw Y axis, central line and X axis
+     */
+    public long drawAxesNanos;
+
+    /**
+     * Time spent to build (if it was not cached) and draw lines of all data sets
+     */
+    public long drawDataSetNanos;
+
+    /**
+     * Time spent to draw points of all data sets
+     */
+    public long drawPointsNanos;
+
+    public long drawFocusedCirclesNanos;
+
+    public long drawDataLabelNanos;
+
+    /**
+     * Time of the whole frame
+     */
+    public long totalNanos;
+
+    /**
+     * Number of data points read this frame: points checked for the central line and points
+     * transformed to pixels when lines were rebuilt
+     */
+    public int pointsConsidered;
+
+    /**
+     * Number of line segments drawn
+     */
+    public int segmentsEmitted;
+
+    /**
+     * Number of drawing buffers reallocated since the previous frame
+     */
+    public int bufferRegrowths;
+
+    /**
+     * True if the frame was drawn at reduced quality, see
+     * {@link AutoScaleGraphView#setAdaptiveQuality(int)}
+     */
+    public boolean reducedQuality;
+
+    void reset() {
+        computeClosestPointsNanos = 0;
+        drawAxesNanos = 0;
+        drawDataSetNanos = 0;
+        drawPointsNanos = 0;
+        drawFocusedCirclesNanos = 0;
+        drawDataLabelNanos = 0;
+        totalNanos = 0;
+        pointsConsidered = 0;
+        segmentsEmitted = 0;
+        bufferRegrowths = 0;
+        reducedQuality = false;
+    }
+}
@@ -0,0 +1,18 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Receives rendering cost of every frame drawn by {@link AutoScaleGraphView}.
+ * Set with {@link AutoScaleGraphView#setMetricsListener(GraphMetricsListener)}, when no listener
+ * is set frames are not measured at all.
+ */
+public interface GraphMetricsListener {
+
+    /**
+     * Called at the end of every frame, on UI thread or on the render thread of
+     * {@link AutoScaleGraphTextureView}
+     *
+     * @param metrics metrics of the frame. Instance is reused for every frame, so copy values
+     *                which have to be kept after this call returns
+     */
+    void onFrameMetrics(GraphFrameMetrics metrics);
+}
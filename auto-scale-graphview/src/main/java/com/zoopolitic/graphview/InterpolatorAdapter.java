@@ -0,0 +1,20 @@
+package com.zoopolitic.graphview;
+
+import android.view.animation.Interpolator;
+
+/**
+ * {@link ScaleInterpolator} backed by Android {@link Interpolator}
+ */
+class InterpolatorAdapter implements ScaleInterpolator {
+
+    private final Interpolator interpolator;
+
+    InterpolatorAdapter(Interpolator interpolator) {
+        this.interpolator = interpolator;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return interpolator.getInterpolation(input);
+    }
+}
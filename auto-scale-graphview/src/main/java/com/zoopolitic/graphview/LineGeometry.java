@@ -0,0 +1,85 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Cached pixel-space lines of a data set.
+ * <p>
+ * Lines are built for the viewport extended by its width to each side. While only the viewport's
+ * left/right change, the cached lines are drawn shifted with canvas translation, so horizontal
+ * scroll and fling frames don't transform any point. Lines are rebuilt when data, vertical scale,
+ * viewport width, drawing rect or render mode change, or when viewport leaves the covered range.
+ */
+class LineGeometry {
+
+    /**
+     * Max error in pixels at the right edge of drawing rect caused by viewport width change
+     */
+    private static final float MAX_WIDTH_ERROR_PX = 0.5f;
+
+    float[] lines = new float[]{};
+    int     lineCount;
+
+    /**
+     * Viewport left at the moment lines were built
+     */
+    float anchorLeft;
+
+    /**
+     * X range covered by lines
+     */
+    float coveredLeft;
+    float coveredRight;
+
+    private int   modCount = -1;
+    private float top;
+    private float bottom;
+    private float viewportWidth;
+    private int   renderMode;
+    private final PixelRect contentRect = new PixelRect();
+
+    /**
+     * @return true if lines can be drawn for the current state just by translation
+     */
+    boolean isValid(DataSet dataSet, ViewportManager viewportManager, int renderMode) {
+        // width is compared with tolerance, right - left of a moved viewport is not exact
+        float widthError = Math.abs(viewportManager.right() - viewportManager.left() - viewportWidth);
+        return modCount == dataSet.getModCount()
+                && top == viewportManager.top()
+                && bottom == viewportManager.bottom()
+                && widthError * contentRect.width() < viewportWidth * MAX_WIDTH_ERROR_PX
+                && this.renderMode == renderMode
+                && contentRect.equals(viewportManager.contentRect)
+                && viewportManager.left() >= coveredLeft
+                && viewportManager.right() <= coveredRight;
+    }
+
+    /**
+     * Remembers state lines were built for
+     */
+    void setKey(DataSet dataSet, ViewportManager viewportManager, int renderMode) {
+        modCount = dataSet.getModCount();
+        top = viewportManager.top();
+        bottom = viewportManager.bottom();
+        viewportWidth = viewportManager.right() - viewportManager.left();
+        anchorLeft = viewportManager.left();
+        this.renderMode = renderMode;
+        contentRect.set(viewportManager.contentRect);
+    }
+
+    /**
+     * @return horizontal offset in pixels lines have to be drawn with for the current viewport
+     */
+    float getTranslationX(ViewportManager viewportManager) {
+        return (anchorLeft - viewportManager.left()) / viewportWidth * contentRect.width();
+    }
+
+    /**
+     * @return true if lines buffer was reallocated
+     */
+    boolean ensureCapacity(int lineCount) {
+        if (lines.length < lineCount * 4) {
+            lines = new float[lineCount * 4];
+            return true;
+        }
+        return false;
+    }
+}
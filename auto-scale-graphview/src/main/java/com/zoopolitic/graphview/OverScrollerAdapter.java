@@ -0,0 +1,31 @@
+package com.zoopolitic.graphview;
+
+import android.widget.OverScroller;
+
+/**
+ * {@link GraphScroller} backed by {@link OverScroller}
+ */
+class OverScrollerAdapter implements GraphScroller {
+
+    private final OverScroller scroller;
+
+    OverScrollerAdapter(OverScroller scroller) {
+        this.scroller = scroller;
+    }
+
+    @Override
+    public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+        scroller.startScroll(startX, startY, dx, dy, duration);
+    }
+
+    @Override
+    public void fling(int startX, int startY, int velocityX, int velocityY,
+                      int minX, int maxX, int minY, int maxY, int overX, int overY) {
+        scroller.fling(startX, startY, velocityX, velocityY, minX, maxX, minY, maxY, overX, overY);
+    }
+
+    @Override
+    public void forceFinished(boolean finished) {
+        scroller.forceFinished(finished);
+    }
+}
@@ -0,0 +1,97 @@
+package com.zoopolitic.graphview;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.os.Build;
+
+/**
+ * Recorded drawing of the layers that don't move on horizontal scroll: Y axis grid, Y labels and
+ * central line. It is recorded once into a {@link Picture} and replayed every frame until Y stops,
+ * vertical scale, drawing rect or drawing configuration change.
+ */
+class StaticLayer {
+
+    /**
+     * Hardware accelerated canvas supports drawPicture starting from Build.VERSION_CODES.M
+     */
+    private static final int HARDWARE_PICTURE_SDK = 23;
+
+    private final Picture picture = new Picture();
+    private boolean recorded;
+
+    private float[] stops = new float[]{};
+    private int     numStops;
+    private float   top;
+    private float   bottom;
+    private float   bottomOffset;
+    private boolean centralLineVisible;
+    private final PixelRect contentRect = new PixelRect();
+
+    /**
+     * @return true if the canvas can replay recorded picture
+     */
+    static boolean isSupported(Canvas canvas) {
+        return !canvas.isHardwareAccelerated() || Build.VERSION.SDK_INT >= HARDWARE_PICTURE_SDK;
+    }
+
+    /**
+     * @return true if recorded picture matches the current state
+     */
+    boolean isValid(ViewportManager viewportManager, float bottomOffset, boolean centralLineVisible) {
+        if (!recorded
+                || top != viewportManager.top()
+                || bottom != viewportManager.bottom()
+                || this.bottomOffset != bottomOffset
+                || this.centralLineVisible != centralLineVisible
+                || !contentRect.equals(viewportManager.contentRect)) {
+            return false;
+        }
+        AxisStops yStops = viewportManager.yStops;
+        if (numStops != yStops.numStops) {
+            return false;
+        }
+        for (int i = 0; i < numStops; i++) {
+            if (stops[i] != yStops.stops[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts recording for the current state
+     *
+     * @return canvas to draw layers on
+     */
+    Canvas beginRecording(ViewportManager viewportManager, float bottomOffset, boolean centralLineVisible,
+                          int width, int height) {
+        AxisStops yStops = viewportManager.yStops;
+        if (stops.length < yStops.numStops) {
+            stops = new float[yStops.numStops];
+        }
+        System.arraycopy(yStops.stops, 0, stops, 0, yStops.numStops);
+        numStops = yStops.numStops;
+        top = viewportManager.top();
+        bottom = viewportManager.bottom();
+        this.bottomOffset = bottomOffset;
+        this.centralLineVisible = centralLineVisible;
+        contentRect.set(viewportManager.contentRect);
+        return picture.beginRecording(width, height);
+    }
+
+    void endRecording() {
+        picture.endRecording();
+        recorded = true;
+    }
+
+    void draw(Canvas canvas) {
+        canvas.drawPicture(picture);
+    }
+
+    /**
+     * Forces layer to be recorded again on the next frame, must be called when paints change
+     */
+    void invalidate() {
+        recorded = false;
+    }
+}
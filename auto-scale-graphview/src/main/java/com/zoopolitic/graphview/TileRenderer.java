@@ -0,0 +1,401 @@
+package com.zoopolitic.graphview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import java.util.List;
+
+/**
+ * Draws lines and points of data sets from bitmap tiles rendered on a background thread, so
+ * frames of a fast fling only blit bitmaps.
+ * <p>
+ * Plot area is split into tiles of {@link #TILE_WIDTH} pixels along X. Lines of a tile are built
+ * on the drawing thread, the same way as lines drawn directly, and are rasterized into a pooled
+ * bitmap on the renderer thread, so data sets are never read off the drawing thread. Tiles next to the
+ * visible ones in the direction of scroll are rendered ahead. All tiles are dropped when vertical
+ * scale, viewport width, drawing rect, render mode or points of any data set change.
+ */
+class TileRenderer {
+
+    static final int TILE_WIDTH = 256;
+
+    /**
+     * Number of tiles rendered ahead of the visible ones in the direction of scroll
+     */
+    private static final int PREFETCH_TILES = 3;
+
+    /**
+     * Max error in pixels at the right edge of drawing rect caused by viewport width change,
+     * same as in {@link LineGeometry}
+     */
+    private static final float MAX_WIDTH_ERROR_PX = 0.5f;
+
+    private static final int STATE_EMPTY     = 0;
+    private static final int STATE_RENDERING = 1;
+    private static final int STATE_READY     = 2;
+
+    /**
+     * Builds lines of the data set the same way as they are built for direct drawing
+     */
+    interface LineBuilder {
+
+        /**
+         * Writes lines through points with X within [left, right] range, plus one point on each
+         * side of it, transformed to pixels of the current viewport
+         *
+         * @param width width of the range in pixels
+         */
+        void buildLines(DataSet dataSet, float left, float right, int width, LineGeometry geometry);
+    }
+
+    private final LineBuilder lineBuilder;
+
+    /**
+     * Schedules a new frame of the view, called on the drawing thread when a tile is rendered
+     */
+    private final Runnable invalidate;
+
+    /**
+     * Copies of the view paints, used only on the renderer thread
+     */
+    private final Paint linePaint;
+    private final Paint pointsPaint;
+    private final float pointRadius;
+
+    private final HandlerThread thread;
+    private final Handler       workerHandler;
+    private final Handler       drawingHandler;
+
+    private Tile[] tiles = new Tile[0];
+
+    /**
+     * Incremented whenever tiles are dropped, tiles rendered for an older generation are discarded
+     */
+    private int generation;
+
+    /**
+     * State tiles of the current generation are rendered for
+     */
+    private float top;
+    private float bottom;
+    private float viewportWidth;
+    private int   renderMode;
+    private float bottomOffset;
+    private int   height;
+    private int[] modCounts = new int[]{};
+    private int   dataSetCount;
+    private final PixelRect contentRect = new PixelRect();
+
+    /**
+     * X value at the left edge of tile 0
+     */
+    private double originX;
+
+    /**
+     * Viewport left of the previous frame, tells direction of scroll
+     */
+    private float lastLeft;
+
+    /**
+     * Must be created on the drawing thread, rendered tiles are handed over to its looper
+     */
+    TileRenderer(LineBuilder lineBuilder, Runnable invalidate, Paint linePaint, Paint pointsPaint,
+                 float pointRadius) {
+        this.lineBuilder = lineBuilder;
+        this.invalidate = invalidate;
+        this.drawingHandler = new Handler();
+        this.linePaint = new Paint(linePaint);
+        this.pointsPaint = new Paint(pointsPaint);
+        this.pointRadius = pointRadius;
+        thread = new HandlerThread("GraphTileRenderer");
+        thread.start();
+        workerHandler = new Handler(thread.getLooper());
+    }
+
+    /**
+     * Draws lines and points of data sets from tiles, renders missing tiles and tiles ahead of the
+     * visible ones in background
+     *
+     * @return false if data sets have to be drawn directly, because a visible tile is not
+     * rendered yet or a data set is not sorted by X
+     */
+    boolean draw(Canvas canvas, ViewportManager viewportManager, List<DataSet> dataSets, int renderMode,
+                 float bottomOffset, int height) {
+        for (int i = 0; i < dataSets.size(); i++) {
+            if (!dataSets.get(i).isSorted()) {
+                return false;
+            }
+        }
+        if (!isKeyValid(viewportManager, dataSets, renderMode, bottomOffset, height)) {
+            setKey(viewportManager, dataSets, renderMode, bottomOffset, height);
+        }
+        if (contentRect.width() <= 0 || viewportWidth <= 0) {
+            return false;
+        }
+
+        float left = viewportManager.left();
+        double pixelsPerUnit = contentRect.width() / viewportWidth;
+        double leftPx = (left - originX) * pixelsPerUnit;
+        int firstVisible = (int) Math.floor(leftPx / TILE_WIDTH);
+        int lastVisible = (int) Math.floor((leftPx + contentRect.width() - 1) / TILE_WIDTH);
+        ensureTileCount(lastVisible - firstVisible + 1 + PREFETCH_TILES * 2);
+
+        boolean visibleReady = true;
+        for (int index = firstVisible; index <= lastVisible; index++) {
+            Tile tile = requestTile(index, viewportManager, dataSets, firstVisible, lastVisible);
+            visibleReady &= tile != null && tile.state == STATE_READY;
+        }
+        if (left > lastLeft) {
+            for (int index = lastVisible + 1; index <= lastVisible + PREFETCH_TILES; index++) {
+                requestTile(index, viewportManager, dataSets, firstVisible, lastVisible);
+            }
+        } else if (left < lastLeft) {
+            for (int index = firstVisible - 1; index >= firstVisible - PREFETCH_TILES; index--) {
+                requestTile(index, viewportManager, dataSets, firstVisible, lastVisible);
+            }
+        }
+        lastLeft = left;
+        if (!visibleReady) {
+            return false;
+        }
+
+        int clipRestoreCount = canvas.save();
+        canvas.clipRect(
+                contentRect.left,
+                contentRect.top,
+                contentRect.right,
+                contentRect.bottom - bottomOffset + pointRadius
+        );
+        for (int index = firstVisible; index <= lastVisible; index++) {
+            Tile tile = findTile(index);
+            float x = (float) (contentRect.left + (double) index * TILE_WIDTH - leftPx);
+            canvas.drawBitmap(tile.bitmap, x, 0, null);
+        }
+        canvas.restoreToCount(clipRestoreCount);
+        return true;
+    }
+
+    private boolean isKeyValid(ViewportManager viewportManager, List<DataSet> dataSets, int renderMode,
+                               float bottomOffset, int height) {
+        // width is compared with tolerance, right - left of a moved viewport is not exact
+        float widthError = Math.abs(viewportManager.right() - viewportManager.left() - viewportWidth);
+        if (top != viewportManager.top()
+                || bottom != viewportManager.bottom()
+                || widthError * contentRect.width() >= viewportWidth * MAX_WIDTH_ERROR_PX
+                || this.renderMode != renderMode
+                || this.bottomOffset != bottomOffset
+                || this.height != height
+                || !contentRect.equals(viewportManager.contentRect)
+                || dataSetCount != dataSets.size()) {
+            return false;
+        }
+        for (int i = 0; i < dataSetCount; i++) {
+            if (modCounts[i] != dataSets.get(i).getModCount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drops all tiles and remembers the state new tiles are rendered for
+     */
+    private void setKey(ViewportManager viewportManager, List<DataSet> dataSets, int renderMode,
+                        float bottomOffset, int height) {
+        generation++;
+        for (Tile tile : tiles) {
+            if (tile.state == STATE_READY) {
+                tile.state = STATE_EMPTY;
+            }
+        }
+        top = viewportManager.top();
+        bottom = viewportManager.bottom();
+        viewportWidth = viewportManager.right() - viewportManager.left();
+        this.renderMode = renderMode;
+        this.bottomOffset = bottomOffset;
+        this.height = height;
+        contentRect.set(viewportManager.contentRect);
+        dataSetCount = dataSets.size();
+        if (modCounts.length < dataSetCount) {
+            modCounts = new int[dataSetCount];
+        }
+        for (int i = 0; i < dataSetCount; i++) {
+            modCounts[i] = dataSets.get(i).getModCount();
+        }
+        originX = viewportManager.left();
+        lastLeft = viewportManager.left();
+    }
+
+    private void ensureTileCount(int count) {
+        if (tiles.length >= count) {
+            return;
+        }
+        Tile[] newTiles = new Tile[count];
+        System.arraycopy(tiles, 0, newTiles, 0, tiles.length);
+        for (int i = tiles.length; i < count; i++) {
+            newTiles[i] = new Tile();
+        }
+        tiles = newTiles;
+    }
+
+    /**
+     * @return tile of the current generation with the given index or null if there is none
+     */
+    private Tile findTile(int index) {
+        for (Tile tile : tiles) {
+            if (tile.index == index && tile.generation == generation && tile.state != STATE_EMPTY) {
+                return tile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts rendering of the tile unless it is rendered or being rendered already. Evicts the
+     * tile farthest from the visible ones if there is no free tile
+     *
+     * @return tile with the given index or null if all tiles are busy
+     */
+    private Tile requestTile(int index, ViewportManager viewportManager, List<DataSet> dataSets,
+                             int firstVisible, int lastVisible) {
+        Tile tile = findTile(index);
+        if (tile != null) {
+            return tile;
+        }
+        int maxDistance = -1;
+        for (Tile candidate : tiles) {
+            if (candidate.state == STATE_RENDERING) {
+                continue;
+            }
+            int distance;
+            if (candidate.state == STATE_EMPTY) {
+                distance = Integer.MAX_VALUE;
+            } else {
+                distance = Math.max(firstVisible - candidate.index, candidate.index - lastVisible);
+                if (distance <= 0) {
+                    // visible tiles are never evicted
+                    continue;
+                }
+            }
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                tile = candidate;
+            }
+        }
+        if (tile == null) {
+            return null;
+        }
+
+        double pixelsPerUnit = contentRect.width() / viewportWidth;
+        float tileLeft = (float) (originX + (double) index * TILE_WIDTH / pixelsPerUnit);
+        float tileRight = (float) (originX + (double) (index + 1) * TILE_WIDTH / pixelsPerUnit);
+        tile.prepare(dataSets.size());
+        for (int i = 0; i < dataSets.size(); i++) {
+            DataSet dataSet = dataSets.get(i);
+            lineBuilder.buildLines(dataSet, tileLeft, tileRight, TILE_WIDTH, tile.geometries[i]);
+            tile.lineColors[i] = dataSet.getLineColor();
+            tile.pointColors[i] = dataSet.getPointColor();
+        }
+        tile.index = index;
+        tile.generation = generation;
+        tile.state = STATE_RENDERING;
+        // lines are in pixels of the current viewport, shift them to the left edge of the tile
+        tile.translateX = -(float) (contentRect.left + (tileLeft - viewportManager.left()) * pixelsPerUnit);
+        tile.clipBottom = contentRect.bottom - bottomOffset;
+        workerHandler.post(tile);
+        return tile;
+    }
+
+    /**
+     * Stops renderer thread, tiles being rendered are discarded
+     */
+    void release() {
+        generation++;
+        thread.quit();
+    }
+
+    private final class Tile implements Runnable {
+
+        int index;
+        int generation = -1;
+        int state      = STATE_EMPTY;
+
+        Bitmap bitmap;
+        final Canvas canvas = new Canvas();
+
+        LineGeometry[] geometries = new LineGeometry[]{};
+        int[]          lineColors = new int[]{};
+        int[]          pointColors = new int[]{};
+        int            geometryCount;
+
+        float translateX;
+        float clipBottom;
+
+        /**
+         * Called on the drawing thread when tile is rendered
+         */
+        private final Runnable onRendered = new Runnable() {
+            @Override
+            public void run() {
+                if (Tile.this.generation == TileRenderer.this.generation) {
+                    state = STATE_READY;
+                    invalidate.run();
+                } else {
+                    state = STATE_EMPTY;
+                }
+            }
+        };
+
+        /**
+         * Makes room for lines of data sets, called on the drawing thread before rendering
+         */
+        void prepare(int dataSetCount) {
+            if (geometries.length < dataSetCount) {
+                LineGeometry[] newGeometries = new LineGeometry[dataSetCount];
+                System.arraycopy(geometries, 0, newGeometries, 0, geometries.length);
+                for (int i = geometries.length; i < dataSetCount; i++) {
+                    newGeometries[i] = new LineGeometry();
+                }
+                geometries = newGeometries;
+                lineColors = new int[dataSetCount];
+                pointColors = new int[dataSetCount];
+            }
+            geometryCount = dataSetCount;
+            if (bitmap == null || bitmap.getHeight() != height) {
+                bitmap = Bitmap.createBitmap(TILE_WIDTH, Math.max(1, height), Bitmap.Config.ARGB_8888);
+            }
+        }
+
+        /**
+         * Rasterizes lines on the renderer thread, same as the view draws them directly
+         */
+        @Override
+        public void run() {
+            bitmap.eraseColor(Color.TRANSPARENT);
+            canvas.setBitmap(bitmap);
+            for (int i = 0; i < geometryCount; i++) {
+                LineGeometry geometry = geometries[i];
+
+                int clipRestoreCount = canvas.save();
+                canvas.clipRect(0, 0, TILE_WIDTH, clipBottom);
+                canvas.translate(translateX, 0);
+                linePaint.setColor(lineColors[i]);
+                canvas.drawLines(geometry.lines, 0, geometry.lineCount * 4, linePaint);
+                canvas.restoreToCount(clipRestoreCount);
+
+                clipRestoreCount = canvas.save();
+                canvas.clipRect(0, 0, TILE_WIDTH, clipBottom + pointRadius);
+                canvas.translate(translateX, 0);
+                pointsPaint.setColor(pointColors[i]);
+                canvas.drawPoints(geometry.lines, 0, geometry.lineCount * 4, pointsPaint);
+                canvas.restoreToCount(clipRestoreCount);
+            }
+            canvas.setBitmap(null);
+            drawingHandler.post(onRendered);
+        }
+    }
+}
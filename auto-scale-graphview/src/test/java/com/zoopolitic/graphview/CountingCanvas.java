@@ -0,0 +1,97 @@
+package com.zoopolitic.graphview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+
+/**
+ * Canvas that doesn't draw anything and only counts draw calls, so frames can be drawn on JVM
+ * without allocations of a real or shadowed canvas. Reports itself as hardware accelerated, so
+ * the view draws static layer directly instead of recording a {@link Picture} on old platforms.
+ */
+class CountingCanvas extends Canvas {
+
+    int drawCalls;
+
+    private int saveCount = 1;
+
+    @Override
+    public boolean isHardwareAccelerated() {
+        return true;
+    }
+
+    @Override
+    public int save() {
+        return saveCount++;
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+        this.saveCount = saveCount;
+    }
+
+    @Override
+    public boolean clipRect(float left, float top, float right, float bottom) {
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(int left, int top, int right, int bottom) {
+        return true;
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPoints(float[] pts, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPicture(Picture picture) {
+        drawCalls++;
+    }
+}
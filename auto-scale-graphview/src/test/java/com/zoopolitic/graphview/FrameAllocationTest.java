@@ -0,0 +1,239 @@
+package com.zoopolitic.graphview;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that drawing a frame doesn't allocate once buffers and caches are warmed up.
+ * <p>
+ * Every sequence is run twice from the same position: the first run warms up buffers and label
+ * caches, allocations of every frame of the second run are measured with per thread allocation
+ * counters. A frame is {@code computeScroll()} followed by {@code onDraw()} on a
+ * {@link CountingCanvas}, so allocations of touch event dispatch are not counted.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FrameAllocationTest {
+
+    private static final int FRAME_MILLIS = 16;
+    private static final int MAX_FRAMES   = 300;
+
+    private static final int WIDTH  = 1080;
+    private static final int HEIGHT = 800;
+
+    /**
+     * 40 X units with 1000 points per unit, so 7 visible units need decimation in decimated modes
+     */
+    private static final int   POINTS = 40001;
+    private static final float STEP   = 0.001f;
+
+    private AutoScaleGraphView view;
+    private CountingCanvas     canvas;
+
+    private com.sun.management.ThreadMXBean threadBean;
+
+    /**
+     * True while frames of the second run of a sequence are measured
+     */
+    private boolean measuring;
+    private long    maxFrameBytes;
+    private int     measuredFrames;
+
+    @Before
+    public void setUp() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        view = new AutoScaleGraphView(RuntimeEnvironment.application);
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+
+        float[] xs = new float[POINTS];
+        float[] ys = new float[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = i * STEP;
+            ys[i] = (float) Math.sin(xs[i]) * 50 + 70;
+        }
+        DataSet first = new DataSet(0xFF0000FF, 0xFF0000FF, POINTS);
+        first.addPoints(xs, ys, 0, POINTS);
+        for (int i = 0; i < POINTS; i++) {
+            ys[i] = (float) Math.cos(xs[i]) * 20 + 60;
+        }
+        DataSet second = new DataSet(0xFFFF0000, 0xFFFF0000, POINTS);
+        second.addPoints(xs, ys, 0, POINTS);
+        view.addDataSet(first);
+        view.addDataSet(second);
+
+        canvas = new CountingCanvas();
+        // first frame measures labels and starts initial scale
+        frame();
+    }
+
+    @Test
+    public void scrollFrames_doNotAllocate() throws Exception {
+        Runnable scroll = new Runnable() {
+            @Override
+            public void run() {
+                long downTime = SystemClock.uptimeMillis();
+                float y = HEIGHT / 2;
+                float x = WIDTH / 2;
+                touch(downTime, MotionEvent.ACTION_DOWN, x, y);
+                for (int i = 0; i < 20; i++) {
+                    // slow drag, so it doesn't turn into a fling
+                    SystemClock.sleep(100);
+                    x += 20;
+                    touch(downTime, MotionEvent.ACTION_MOVE, x, y);
+                    recordFrame();
+                }
+                SystemClock.sleep(100);
+                touch(downTime, MotionEvent.ACTION_UP, x, y);
+                settle();
+            }
+        };
+        assertSteadyStateFramesDoNotAllocate(scroll);
+    }
+
+    @Test
+    public void flingAndSnapFrames_doNotAllocate() throws Exception {
+        view.setSnapEnabled(true);
+        Runnable fling = new Runnable() {
+            @Override
+            public void run() {
+                long downTime = SystemClock.uptimeMillis();
+                float y = HEIGHT / 2;
+                float x = WIDTH / 4;
+                touch(downTime, MotionEvent.ACTION_DOWN, x, y);
+                for (int i = 0; i < 3; i++) {
+                    SystemClock.sleep(10);
+                    x += 150;
+                    touch(downTime, MotionEvent.ACTION_MOVE, x, y);
+                }
+                touch(downTime, MotionEvent.ACTION_UP, x, y);
+                settle();
+            }
+        };
+        assertSteadyStateFramesDoNotAllocate(fling);
+    }
+
+    @Test
+    public void scaleFrames_doNotAllocate() throws Exception {
+        Runnable scale = new Runnable() {
+            @Override
+            public void run() {
+                view.scrollXBy(-3, 300);
+                settle();
+                view.scale();
+                settle();
+            }
+        };
+        assertSteadyStateFramesDoNotAllocate(scale);
+    }
+
+    @Test
+    public void decimatedFrames_doNotAllocate() throws Exception {
+        for (int mode : new int[]{AutoScaleGraphView.RENDER_MODE_LTTB, AutoScaleGraphView.RENDER_MODE_M4,
+                AutoScaleGraphView.RENDER_MODE_LOD}) {
+            view.setRenderMode(mode);
+            Runnable scroll = new Runnable() {
+                @Override
+                public void run() {
+                    view.scrollXBy(-2, 300);
+                    settle();
+                }
+            };
+            assertSteadyStateFramesDoNotAllocate(scroll);
+        }
+    }
+
+    @Test
+    public void adaptiveQualityFrames_doNotAllocate() throws Exception {
+        view.setAdaptiveQuality(AutoScaleGraphView.ADAPTIVE_QUALITY_MOTION);
+        Runnable scroll = new Runnable() {
+            @Override
+            public void run() {
+                view.scrollXBy(-2, 300);
+                settle();
+                view.scale();
+                settle();
+            }
+        };
+        assertSteadyStateFramesDoNotAllocate(scroll);
+    }
+
+    /**
+     * Runs sequence from the end of the graph twice, asserts that no frame of the second run
+     * allocated
+     */
+    private void assertSteadyStateFramesDoNotAllocate(Runnable sequence) {
+        view.moveEnd();
+        settle();
+        sequence.run();
+
+        view.moveEnd();
+        settle();
+        maxFrameBytes = 0;
+        measuredFrames = 0;
+        measuring = true;
+        sequence.run();
+        measuring = false;
+
+        assertTrue("no frames were drawn", measuredFrames > 0);
+        assertEquals("bytes allocated by the most expensive frame", 0, maxFrameBytes);
+    }
+
+    /**
+     * Draws enough frames for scroll and scale animations to finish
+     */
+    private void settle() {
+        for (int i = 0; i < MAX_FRAMES; i++) {
+            SystemClock.sleep(FRAME_MILLIS);
+            recordFrame();
+        }
+    }
+
+    private void recordFrame() {
+        if (!measuring) {
+            frame();
+            return;
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        frame();
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        maxFrameBytes = Math.max(maxFrameBytes, allocated);
+        measuredFrames++;
+    }
+
+    private void frame() {
+        int drawCalls = canvas.drawCalls;
+        view.computeScroll();
+        view.onDraw(canvas);
+        if (canvas.drawCalls == drawCalls) {
+            throw new AssertionError("frame didn't draw anything");
+        }
+    }
+
+    private void touch(long downTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, y, 0);
+        view.onTouchEvent(event);
+        event.recycle();
+    }
+}
@@ -0,0 +1,198 @@
+package com.zoopolitic.graphview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link ViewportManager} hot paths: work done on every scroll step, scale and frame.
+ * <p>
+ * Data sets of one trial share a single series, so 50 data sets of 10M points fit into memory.
+ * Cost of every data set is the same as of a distinct one, only CPU caches are warmer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ViewportManagerBenchmark {
+
+    private static final int CONTENT_WIDTH  = 1000;
+    private static final int CONTENT_HEIGHT = 600;
+
+    @Param({"1000", "100000", "10000000"})
+    public int points;
+
+    @Param({"1", "10", "50"})
+    public int dataSetsCount;
+
+    @Param({"true", "false"})
+    public boolean sorted;
+
+    private List<DataSet> dataSets;
+
+    private ViewportManager viewportManager;
+
+    private VerticalScaler scaler;
+
+    /**
+     * Buffer for lines of the widest range drawn by the view
+     */
+    private float[] linesBuffer;
+
+    /**
+     * Buffer for indices of points picked from level-of-detail pyramids
+     */
+    private int[] lodIndicesBuffer;
+
+    private float minY;
+    private float maxY;
+
+    private float closestPointsShift = 0.01f;
+
+    @Setup
+    public void setUp() {
+        DataSet series = createSeries(points, sorted, new Random(42));
+        dataSets = new ArrayList<>(dataSetsCount);
+        for (int i = 0; i < dataSetsCount; i++) {
+            dataSets.add(series);
+        }
+
+        viewportManager = new ViewportManager();
+        viewportManager.constrainDrawRect(0, 0, CONTENT_WIDTH, CONTENT_HEIGHT);
+        viewportManager.calculateMinMax(dataSets);
+        // put central line in the middle of the series
+        viewportManager.move(points / 2 - viewportManager.visibleXRange / 2f);
+        viewportManager.computeXAxis();
+
+        scaler = new VerticalScaler(new ScaleInterpolator() {
+            @Override
+            public float getInterpolation(float input) {
+                return input;
+            }
+        }, Clock.SYSTEM);
+
+        minY = series.getMinY();
+        maxY = series.getMaxY();
+        linesBuffer = new float[Math.max(0, points - 1) * 4];
+        lodIndicesBuffer = new int[points + 4];
+        // pyramid is built once per data set, the benchmark measures drawing from it
+        series.getLodPyramid();
+    }
+
+    /**
+     * Series with X from 0 to count - 1 and Y as a random walk. Unsorted series has the same points
+     * in shuffled order
+     */
+    private static DataSet createSeries(int count, boolean sorted, Random random) {
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        float y = 0;
+        for (int i = 0; i < count; i++) {
+            y += random.nextFloat() * 2 - 1;
+            xs[i] = i;
+            ys[i] = y;
+        }
+        if (!sorted) {
+            for (int i = count - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                float x = xs[i];
+                xs[i] = xs[j];
+                xs[j] = x;
+                float value = ys[i];
+                ys[i] = ys[j];
+                ys[j] = value;
+            }
+        }
+        DataSet dataSet = new DataSet(0, 0, count);
+        dataSet.addPoints(xs, ys, 0, count);
+        return dataSet;
+    }
+
+    @Benchmark
+    public float autoScale() {
+        viewportManager.autoScale(scaler, 0, dataSets);
+        return scaler.getCurrMaxY();
+    }
+
+    /**
+     * Viewport is moved back and forth by a fraction of a point, so result cached by the previous
+     * call is not reused
+     */
+    @Benchmark
+    public int computeClosestPoints() {
+        closestPointsShift = -closestPointsShift;
+        viewportManager.move(viewportManager.left() + closestPointsShift);
+        viewportManager.computeClosestPoints(dataSets);
+        return viewportManager.closestPointsCount;
+    }
+
+    @Benchmark
+    public int computeYAxisStops() {
+        viewportManager.computeYAxisStops(minY, maxY);
+        return viewportManager.yStops.numStops;
+    }
+
+    @Benchmark
+    public int computeXAxis() {
+        viewportManager.computeXAxis();
+        return viewportManager.xStops.numStops;
+    }
+
+    /**
+     * Vertex fill of every data set for the range the view builds lines for: viewport extended
+     * by its width to each side
+     */
+    @Benchmark
+    public int fillDrawLines() {
+        float left = viewportManager.left();
+        float right = viewportManager.right();
+        float width = right - left;
+        int lineCount = 0;
+        for (int i = 0; i < dataSets.size(); i++) {
+            DataSet dataSet = dataSets.get(i);
+            viewportManager.computeRange(dataSet, left - width, right + width, 1);
+            lineCount += viewportManager.fillDrawLines(
+                    dataSet, viewportManager.visibleFrom, viewportManager.visibleTo, linesBuffer);
+        }
+        return lineCount;
+    }
+
+    /**
+     * Lines of the whole series, as if it was zoomed out to fit the view, built from
+     * level-of-detail pyramids with one bucket per pixel column. Cost depends on content width
+     * rather than on number of points. Unsorted data sets and series with less than 8 points per
+     * column are drawn as is, like in the view
+     */
+    @Benchmark
+    public int fillLodLines() {
+        int lineCount = 0;
+        for (int i = 0; i < dataSets.size(); i++) {
+            DataSet dataSet = dataSets.get(i);
+            int size = dataSet.size();
+            LodPyramid pyramid = dataSet.isSorted() ? dataSet.getLodPyramid() : null;
+            int level = pyramid != null ? pyramid.levelFor(0, size, CONTENT_WIDTH) : -1;
+            if (level >= 0) {
+                int count = pyramid.collect(dataSet, level, 0, size, lodIndicesBuffer);
+                lineCount += viewportManager.fillDrawLines(dataSet, lodIndicesBuffer, count, linesBuffer);
+            } else {
+                lineCount += viewportManager.fillDrawLines(dataSet, 0, size, linesBuffer);
+            }
+        }
+        return lineCount;
+    }
+}
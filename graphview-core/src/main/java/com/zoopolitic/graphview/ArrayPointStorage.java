@@ -0,0 +1,265 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Growable storage of {@link DataSet}. Points are stored column by column in two parallel
+ * primitive arrays, so a series costs 8 bytes per point and can be iterated by index without
+ * touching any objects.
+ */
+class ArrayPointStorage extends PointStorage {
+
+    private float maxX = Float.MIN_VALUE;
+    private float minX = Float.MAX_VALUE;
+
+    private float maxY = Float.MIN_VALUE;
+    private float minY = Float.MAX_VALUE;
+
+    /**
+     * X values of the points
+     */
+    private float[] xs;
+
+    /**
+     * Y values of the points
+     */
+    private float[] ys;
+
+    /**
+     * Index of the first point in {@link #xs} and {@link #ys}. Points removed from the beginning
+     * only move this offset, the space is reclaimed when storage grows
+     */
+    private int head;
+
+    /**
+     * Number of points stored in {@link #xs} and {@link #ys}
+     */
+    private int size;
+
+    /**
+     * True while every point has been added with X not less than X of the previous point
+     */
+    private boolean sorted = true;
+
+    /**
+     * Range min/max indices over {@link #xs} and {@link #ys}
+     */
+    private final MinMaxIndex xIndex = new MinMaxIndex();
+    private final MinMaxIndex yIndex = new MinMaxIndex();
+
+    ArrayPointStorage(int initialCapacity) {
+        this.xs = new float[initialCapacity];
+        this.ys = new float[initialCapacity];
+    }
+
+    /**
+     * Takes ownership of already filled columns, bounds and ordering are trusted as given
+     */
+    ArrayPointStorage(float[] xs, float[] ys, int size, boolean sorted,
+                      float minX, float maxX, float minY, float maxY) {
+        this.xs = xs;
+        this.ys = ys;
+        this.size = size;
+        this.sorted = sorted;
+        if (size > 0) {
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minY = minY;
+            this.maxY = maxY;
+        }
+        xIndex.rebuild(xs, size);
+        yIndex.rebuild(ys, size);
+    }
+
+    @Override
+    int add(float x, float y) {
+        ensureCapacity(size + 1);
+        int end = head + size;
+        if (size > 0 && x < xs[end - 1]) {
+            sorted = false;
+        }
+        xs[end] = x;
+        ys[end] = y;
+        size++;
+        xIndex.update(xs, end, end + 1);
+        yIndex.update(ys, end, end + 1);
+        calculateMinMax(x, y);
+        return 0;
+    }
+
+    /**
+     * Storage grows at most once, bounds and min/max indices are updated in a single pass
+     */
+    @Override
+    int add(float[] xs, float[] ys, int offset, int count) {
+        ensureCapacity(size + count);
+        int start = head + size;
+        System.arraycopy(xs, offset, this.xs, start, count);
+        System.arraycopy(ys, offset, this.ys, start, count);
+        float previousX = size > 0 ? this.xs[start - 1] : Float.NEGATIVE_INFINITY;
+        for (int i = offset; i < offset + count; i++) {
+            float x = xs[i];
+            if (x < previousX) {
+                sorted = false;
+            }
+            previousX = x;
+            calculateMinMax(x, ys[i]);
+        }
+        size += count;
+        xIndex.update(this.xs, start, start + count, start + count);
+        yIndex.update(this.ys, start, start + count, start + count);
+        return 0;
+    }
+
+    /**
+     * Removing points from the beginning or from the end takes O(log n), removing from the middle
+     * shifts the following points. Bounds are updated from range min/max indices, so they never
+     * need a full rescan
+     */
+    @Override
+    void remove(int from, int to) {
+        int count = to - from;
+        if (from == 0) {
+            head += count;
+        } else if (to != size) {
+            System.arraycopy(xs, head + to, xs, head + from, size - to);
+            System.arraycopy(ys, head + to, ys, head + from, size - to);
+            xIndex.rebuild(xs, head + size - count);
+            yIndex.rebuild(ys, head + size - count);
+        }
+        size -= count;
+        if (size == 0) {
+            head = 0;
+        }
+        recalculateMinMax();
+    }
+
+    @Override
+    boolean removeWithin(float fromX, float toX) {
+        int end = head + size;
+        int kept = head;
+        for (int i = head; i < end; i++) {
+            float x = xs[i];
+            if (x < fromX || x >= toX) {
+                xs[kept] = x;
+                ys[kept] = ys[i];
+                kept++;
+            }
+        }
+        if (kept == end) {
+            return false;
+        }
+        size = kept - head;
+        xIndex.rebuild(xs, kept);
+        yIndex.rebuild(ys, kept);
+        recalculateMinMax();
+        return true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int length = xs.length;
+        if (length < head + capacity) {
+            float[] newXs = xs;
+            float[] newYs = ys;
+            // reuse storage if at least half of it is taken by removed points
+            if (length < capacity * 2) {
+                int newLength = Math.max(capacity, length + (length >> 1));
+                newXs = new float[newLength];
+                newYs = new float[newLength];
+            }
+            System.arraycopy(xs, head, newXs, 0, size);
+            System.arraycopy(ys, head, newYs, 0, size);
+            xs = newXs;
+            ys = newYs;
+            head = 0;
+            xIndex.rebuild(xs, size);
+            yIndex.rebuild(ys, size);
+        }
+    }
+
+    /**
+     * Recalculates bounds after points were removed
+     */
+    private void recalculateMinMax() {
+        if (size == 0) {
+            maxX = Float.MIN_VALUE;
+            minX = Float.MAX_VALUE;
+            maxY = Float.MIN_VALUE;
+            minY = Float.MAX_VALUE;
+            return;
+        }
+        int end = head + size;
+        if (sorted) {
+            minX = xs[head];
+            maxX = xs[end - 1];
+        } else {
+            minX = xIndex.min(xs, head, end);
+            maxX = xIndex.max(xs, head, end);
+        }
+        minY = yIndex.min(ys, head, end);
+        maxY = yIndex.max(ys, head, end);
+    }
+
+    private void calculateMinMax(float x, float y) {
+        if (x > maxX) {
+            maxX = x;
+        }
+        if (x < minX) {
+            minX = x;
+        }
+        if (y > maxY) {
+            maxY = y;
+        }
+        if (y < minY) {
+            minY = y;
+        }
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    boolean isSorted() {
+        return sorted;
+    }
+
+    @Override
+    float getX(int index) {
+        return xs[head + index];
+    }
+
+    @Override
+    float getY(int index) {
+        return ys[head + index];
+    }
+
+    @Override
+    float getMaxY(int from, int to) {
+        return yIndex.max(ys, head + from, head + to);
+    }
+
+    @Override
+    float getMinY(int from, int to) {
+        return yIndex.min(ys, head + from, head + to);
+    }
+
+    @Override
+    float getMaxX() {
+        return maxX;
+    }
+
+    @Override
+    float getMinX() {
+        return minX;
+    }
+
+    @Override
+    float getMaxY() {
+        return maxY;
+    }
+
+    @Override
+    float getMinY() {
+        return minY;
+    }
+}
@@ -0,0 +1,22 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Monotonic time source of animations
+ */
+public interface Clock {
+
+    /**
+     * Clock based on {@link System#nanoTime()}
+     */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long uptimeMillis() {
+            return System.nanoTime() / 1000000;
+        }
+    };
+
+    /**
+     * @return monotonic time in milliseconds
+     */
+    long uptimeMillis();
+}
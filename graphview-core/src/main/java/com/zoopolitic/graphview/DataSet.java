@@ -0,0 +1,412 @@
+package com.zoopolitic.graphview;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Created by zoopolitic on 27 Апрель 2016 16:06.
+ * <p>
+ * Points are kept by a {@link PointStorage}, by default column by column in two parallel primitive
+ * arrays, so a series costs 8 bytes per point and can be iterated by index without touching any
+ * objects. Subclasses pass their own storage, data set keeps change counters and caches built
+ * from points for all of them.
+ */
+public class DataSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int lineColor;
+    private int pointColor;
+
+    /**
+     * Points of the data set, subclasses pass their own storage instead of overriding accessors
+     */
+    private final PointStorage storage;
+
+    /**
+     * Incremented on every change of points, lets caches built from points detect that they are stale
+     */
+    private int modCount;
+
+    /**
+     * Incremented on every change of points other than appending to the end
+     */
+    private int rewriteCount;
+
+    /**
+     * Counter of points evicted from the beginning, see {@link #markEvicted(int)}
+     */
+    private int evictedCount;
+
+    /**
+     * Built on first request, see {@link #getLodPyramid()}
+     */
+    private LodPyramid lodPyramid;
+
+    private List<DataPoint> pointsView;
+
+    public DataSet(int lineColor, int pointColor) {
+        this(lineColor, pointColor, DEFAULT_CAPACITY);
+    }
+
+    public DataSet(int lineColor, int pointColor, int initialCapacity) {
+        this(lineColor, pointColor, new ArrayPointStorage(initialCapacity));
+    }
+
+    /**
+     * Takes ownership of already filled columns. Bounds and ordering are trusted as given instead
+     * of being computed point by point, used by {@link DataSetCodec} to load stored data sets
+     */
+    DataSet(int lineColor, int pointColor, float[] xs, float[] ys, int size, boolean sorted,
+            float minX, float maxX, float minY, float maxY) {
+        this(lineColor, pointColor, new ArrayPointStorage(xs, ys, size, sorted, minX, maxX, minY, maxY));
+    }
+
+    DataSet(int lineColor, int pointColor, PointStorage storage) {
+        this.lineColor = lineColor;
+        this.pointColor = pointColor;
+        this.storage = storage;
+    }
+
+    public DataSet(int lineColor, int pointColor, List<DataPoint> points) {
+        this(lineColor, pointColor, points.size());
+        int size = points.size();
+        for (int i = 0; i < size; i++) {
+            DataPoint point = points.get(i);
+            addPoint(point.x, point.y);
+        }
+    }
+
+    public float getLevelWidth() {
+        return getMaxX() - getMinX();
+    }
+
+    public float getLevelHeight() {
+        return getMaxY() - getMinY();
+    }
+
+    public void addPoint(DataPoint point) {
+        addPoint(point.x, point.y);
+    }
+
+    public void addPoint(float x, float y) {
+        markAdded(storage.add(x, y));
+    }
+
+    /**
+     * Appends points in bulk: storage grows at most once, bounds and min/max indices are updated
+     * in a single pass
+     *
+     * @param xs     X values of points
+     * @param ys     Y values of points
+     * @param offset index of the first point in arrays
+     * @param count  number of points to append
+     */
+    public void addPoints(float[] xs, float[] ys, int offset, int count) {
+        if (count <= 0) {
+            return;
+        }
+        markAdded(storage.add(xs, ys, offset, count));
+    }
+
+    /**
+     * Removes the first point with the same coordinates as the given point
+     */
+    public void removePoint(DataPoint point) {
+        int index = indexOf(point.x, point.y);
+        if (index >= 0) {
+            removePoints(index, index + 1);
+        }
+    }
+
+    /**
+     * Removes point at the given index
+     */
+    public void removePoint(int index) {
+        removePoints(index, index + 1);
+    }
+
+    /**
+     * Removes points within [from, to) index range. Removing points from the beginning or from the
+     * end of the data set takes O(log n), removing from the middle shifts the following points.
+     * Bounds are updated from range min/max indices, so they never need a full rescan. Points
+     * removed from the beginning are evicted from the level-of-detail pyramid instead of
+     * rebuilding it, so trimming history of a live data set stays cheap in LOD render mode.
+     */
+    public void removePoints(int from, int to) {
+        int size = size();
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), size: " + size);
+        }
+        int count = to - from;
+        if (count == 0) {
+            return;
+        }
+        storage.remove(from, to);
+        if (from == 0 && to != size) {
+            markEvicted(count);
+        } else {
+            markChanged();
+        }
+    }
+
+    /**
+     * Removes points with X within [fromX, toX) range. Sorted data sets find the range with
+     * binary search, so trimming history of a live data set is cheap
+     *
+     * @throws IllegalArgumentException if toX is less than fromX
+     */
+    public void removePoints(float fromX, float toX) {
+        if (toX < fromX) {
+            throw new IllegalArgumentException("Range: [" + fromX + ", " + toX + ")");
+        }
+        if (isSorted()) {
+            removePoints(ceilingIndex(fromX), ceilingIndex(toX));
+        } else if (storage.removeWithin(fromX, toX)) {
+            markChanged();
+        }
+    }
+
+    /**
+     * @return index of the first point with the given coordinates or -1 if there is no such point
+     */
+    private int indexOf(float x, float y) {
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            if (getX(i) == x && getY(i) == y) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void markAdded(int evicted) {
+        if (evicted > 0) {
+            markEvicted(evicted);
+        } else {
+            markAppended();
+        }
+    }
+
+    /**
+     * Called after every change of points, except appending points to the end, see
+     * {@link #markAppended()}
+     */
+    private void markChanged() {
+        modCount++;
+        rewriteCount++;
+    }
+
+    /**
+     * Called after points were appended to the end and no other point was changed, lets caches
+     * built from points be extended instead of rebuilt
+     */
+    private void markAppended() {
+        modCount++;
+    }
+
+    /**
+     * Called after the given number of the first points was removed and, possibly, points were
+     * appended to the end, no other point was changed. Caches built from points can drop the
+     * evicted points instead of being rebuilt
+     */
+    private void markEvicted(int count) {
+        modCount++;
+        evictedCount += count;
+    }
+
+    /**
+     * @return counter of changes of points, caches of drawn geometry are keyed on it
+     */
+    int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * @return counter of changes of points other than appending to the end
+     */
+    int getRewriteCount() {
+        return rewriteCount;
+    }
+
+    /**
+     * @return number of points evicted from the beginning so far, may overflow, so only
+     * differences of its values are meaningful
+     */
+    int getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * Returns level-of-detail pyramid of points. It is built on the first call, which takes
+     * O(n), and brought up to date with points on every following call
+     *
+     * @return pyramid or null if the data set doesn't keep one
+     */
+    LodPyramid getLodPyramid() {
+        if (lodPyramid == null) {
+            lodPyramid = new LodPyramid();
+        }
+        lodPyramid.sync(this);
+        return lodPyramid;
+    }
+
+    /**
+     * Hints that points within [from, to) index range are going to be read soon. Points on the
+     * heap need nothing, file-backed storage loads them in background
+     */
+    void prefetch(int from, int to) {
+        storage.prefetch(from, to);
+    }
+
+    /**
+     * @return number of points in this data set
+     */
+    public int size() {
+        return storage.size();
+    }
+
+    /**
+     * @return true if points are ordered by X, so they can be searched with
+     * {@link #ceilingIndex(float)} and {@link #higherIndex(float)}
+     */
+    public boolean isSorted() {
+        return storage.isSorted();
+    }
+
+    /**
+     * Binary searches the first point with X greater than or equal to the given value.
+     * Makes sense only if data set {@link #isSorted()}
+     *
+     * @return index of the found point or {@link #size()} if there is no such point
+     */
+    public int ceilingIndex(float x) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getX(mid) < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Binary searches the first point with X strictly greater than the given value.
+     * Makes sense only if data set {@link #isSorted()}
+     *
+     * @return index of the found point or {@link #size()} if there is no such point
+     */
+    public int higherIndex(float x) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getX(mid) <= x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param index index of the point, must be less than {@link #size()}
+     * @return X value of the point at the given index
+     */
+    public float getX(int index) {
+        return storage.getX(index);
+    }
+
+    /**
+     * @param index index of the point, must be less than {@link #size()}
+     * @return Y value of the point at the given index
+     */
+    public float getY(int index) {
+        return storage.getY(index);
+    }
+
+    /**
+     * Returns max Y value of points within [from, to) index range in O(log n)
+     *
+     * @return max Y value or {@link Float#NEGATIVE_INFINITY} if range is empty
+     */
+    public float getMaxY(int from, int to) {
+        return storage.getMaxY(from, to);
+    }
+
+    /**
+     * Returns min Y value of points within [from, to) index range in O(log n)
+     *
+     * @return min Y value or {@link Float#POSITIVE_INFINITY} if range is empty
+     */
+    public float getMinY(int from, int to) {
+        return storage.getMinY(from, to);
+    }
+
+    public float getMaxX() {
+        return storage.getMaxX();
+    }
+
+    public float getMinX() {
+        return storage.getMinX();
+    }
+
+    public float getMaxY() {
+        return storage.getMaxY();
+    }
+
+    public float getMinY() {
+        return storage.getMinY();
+    }
+
+    public int getPointColor() {
+        return pointColor;
+    }
+
+    public int getLineColor() {
+        return lineColor;
+    }
+
+    /**
+     * Returns points of this data set as list. Kept for compatibility: every {@link List#get(int)}
+     * creates a new {@link DataPoint}, so prefer {@link #getX(int)} and {@link #getY(int)}
+     * in performance sensitive code.
+     */
+    public List<DataPoint> getPoints() {
+        if (pointsView == null) {
+            pointsView = new PointsView();
+        }
+        return pointsView;
+    }
+
+    /**
+     * List view over the columns. Points added through the view are appended to the data set
+     */
+    private class PointsView extends AbstractList<DataPoint> {
+
+        @Override
+        public DataPoint get(int index) {
+            int size = DataSet.this.size();
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return new DataPoint(getX(index), getY(index));
+        }
+
+        @Override
+        public boolean add(DataPoint point) {
+            addPoint(point);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return DataSet.this.size();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.zoopolitic.graphview;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Compact binary format of {@link DataSet}, for storing and transferring series.
+ * <p>
+ * Layout, little-endian: header of {@link #HEADER_SIZE} bytes (magic, version, flags, number of
+ * points, line color, point color, minX, maxX, minY, maxY, Y quantum), then points one by one.
+ * X is stored as a zigzag varint of the difference between bits of the value and bits of the
+ * previous X, which is lossless and takes 1-3 bytes for evenly spaced sorted values. Y is stored
+ * either as a raw float or, if quantum is given, as a zigzag varint of the difference between
+ * the value rounded to quantum and the previous one.
+ * <p>
+ * Points are decoded straight into columns of the resulting data set, and bounds are taken from
+ * the header instead of being computed from points.
+ */
+public class DataSetCodec {
+
+    private static final int MAGIC   = 0x41534743; // "ASGC"
+    private static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 44;
+
+    private static final int FLAG_SORTED      = 1;
+    private static final int FLAG_Y_QUANTIZED = 2;
+
+    /**
+     * Longest encoded point: two 5 byte varints
+     */
+    private static final int MAX_POINT_SIZE = 10;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Max number of points columns are allocated for before points are decoded, so a corrupt
+     * header can't make reader allocate more than the data actually holds
+     */
+    private static final int INITIAL_CAPACITY = BUFFER_SIZE;
+
+    private DataSetCodec() {
+    }
+
+    /**
+     * Writes data set with raw float Y values, so points are restored exactly
+     */
+    public static void write(WritableByteChannel channel, DataSet dataSet) throws IOException {
+        write(channel, dataSet, 0);
+    }
+
+    /**
+     * Writes data set with Y values rounded to the given quantum, e.g. 0.01 for prices in cents.
+     * Restored Y values differ from the original ones by no more than half of the quantum plus
+     * rounding of the restored value to float
+     *
+     * @param yQuantum step Y values are rounded to, 0 to store them as raw floats
+     * @throws IllegalArgumentException if quantum is negative or too small for the range of Y values
+     */
+    public static void write(WritableByteChannel channel, DataSet dataSet, float yQuantum) throws IOException {
+        if (yQuantum < 0 || Float.isNaN(yQuantum) || Float.isInfinite(yQuantum)) {
+            throw new IllegalArgumentException("Invalid Y quantum " + yQuantum);
+        }
+        int size = dataSet.size();
+        boolean quantized = yQuantum > 0;
+        float minY = dataSet.getMinY();
+        float maxY = dataSet.getMaxY();
+        if (quantized && size > 0) {
+            double steps = ((double) maxY - minY) / yQuantum;
+            if (steps > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Y quantum " + yQuantum + " is too small for range ["
+                        + minY + ", " + maxY + "]");
+            }
+            // rounding is monotonic, so the restored maximum is the rounded maximum
+            maxY = dequantize(quantize(maxY, minY, yQuantum), minY, yQuantum);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt((dataSet.isSorted() ? FLAG_SORTED : 0) | (quantized ? FLAG_Y_QUANTIZED : 0));
+        buffer.putInt(size);
+        buffer.putInt(dataSet.getLineColor());
+        buffer.putInt(dataSet.getPointColor());
+        buffer.putFloat(dataSet.getMinX());
+        buffer.putFloat(dataSet.getMaxX());
+        buffer.putFloat(minY);
+        buffer.putFloat(maxY);
+        buffer.putFloat(yQuantum);
+
+        int prevXBits = 0;
+        int prevQ = 0;
+        for (int i = 0; i < size; i++) {
+            if (buffer.remaining() < MAX_POINT_SIZE) {
+                writeFully(channel, buffer);
+            }
+            int xBits = Float.floatToIntBits(dataSet.getX(i));
+            writeVarint(buffer, zigzag(xBits - prevXBits));
+            prevXBits = xBits;
+            if (quantized) {
+                int q = quantize(dataSet.getY(i), minY, yQuantum);
+                writeVarint(buffer, zigzag(q - prevQ));
+                prevQ = q;
+            } else {
+                buffer.putFloat(dataSet.getY(i));
+            }
+        }
+        writeFully(channel, buffer);
+    }
+
+    /**
+     * Reads data set written by {@link #write(WritableByteChannel, DataSet, float)}. Channel is
+     * read up to the end of the data set, but may be read ahead of it
+     *
+     * @throws IOException if channel can't be read or doesn't contain a data set
+     */
+    public static DataSet read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.limit(0);
+        fill(channel, buffer, HEADER_SIZE);
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Data set header is truncated");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a data set");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported data set version " + version);
+        }
+        int flags = buffer.getInt();
+        int size = buffer.getInt();
+        int lineColor = buffer.getInt();
+        int pointColor = buffer.getInt();
+        float minX = buffer.getFloat();
+        float maxX = buffer.getFloat();
+        float minY = buffer.getFloat();
+        float maxY = buffer.getFloat();
+        float yQuantum = buffer.getFloat();
+        boolean quantized = (flags & FLAG_Y_QUANTIZED) != 0;
+        if (size < 0) {
+            throw new IOException("Invalid number of points " + size);
+        }
+        if (quantized && !(yQuantum > 0)) {
+            throw new IOException("Invalid Y quantum " + yQuantum);
+        }
+
+        // columns grow with decoded points instead of trusting the number of points in the header
+        float[] xs = new float[Math.min(size, INITIAL_CAPACITY)];
+        float[] ys = new float[xs.length];
+        int xBits = 0;
+        int q = 0;
+        try {
+            for (int i = 0; i < size; i++) {
+                if (buffer.remaining() < MAX_POINT_SIZE) {
+                    fill(channel, buffer, MAX_POINT_SIZE);
+                }
+                if (i == xs.length) {
+                    int capacity = (int) Math.min(size, xs.length * 2L);
+                    xs = Arrays.copyOf(xs, capacity);
+                    ys = Arrays.copyOf(ys, capacity);
+                }
+                xBits += unzigzag(readVarint(buffer));
+                xs[i] = Float.intBitsToFloat(xBits);
+                if (quantized) {
+                    q += unzigzag(readVarint(buffer));
+                    ys[i] = dequantize(q, minY, yQuantum);
+                } else {
+                    ys[i] = buffer.getFloat();
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Data set is truncated");
+        }
+        return new DataSet(lineColor, pointColor, xs, ys, size, (flags & FLAG_SORTED) != 0,
+                minX, maxX, minY, maxY);
+    }
+
+    /**
+     * Computed in double, so the only errors are rounding to quantum and rounding result to float
+     */
+    private static int quantize(float y, float minY, float quantum) {
+        return (int) Math.round(((double) y - minY) / quantum);
+    }
+
+    private static float dequantize(int q, float minY, float quantum) {
+        return (float) (minY + (double) q * quantum);
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Reads from channel until buffer has at least the given number of bytes remaining or the
+     * channel ends. Buffer is in read mode before and after the call
+     */
+    private static void fill(ReadableByteChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
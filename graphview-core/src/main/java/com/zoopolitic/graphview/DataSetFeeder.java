@@ -0,0 +1,129 @@
+package com.zoopolitic.graphview;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Staging buffer that lets a background thread feed points into a {@link DataSet}.
+ * <p>
+ * One producer thread calls {@link #offer(float, float)}, points are kept in a lock-free
+ * single-producer/single-consumer ring and moved to the data set on the UI thread once per
+ * animation frame, so drawing never sees a data set that is being modified.
+ * Create instances with {@code AutoScaleGraphView.createFeeder(DataSet, int)}.
+ */
+public class DataSetFeeder {
+
+    /**
+     * Max capacity of a feeder, staging arrays are rounded up to a power of two length
+     */
+    public static final int MAX_CAPACITY = 1 << 30;
+
+    private final DataSet dataSet;
+
+    /**
+     * Max number of staged points, may be less than the length of the staging arrays, which are
+     * indexed with {@link #mask}
+     */
+    private final int     capacity;
+    private final float[] xs;
+    private final float[] ys;
+    private final int     mask;
+
+    /**
+     * Number of points ever written by producer
+     */
+    private final AtomicLong writeIndex = new AtomicLong();
+
+    /**
+     * Number of points ever moved to the data set
+     */
+    private final AtomicLong readIndex = new AtomicLong();
+
+    /**
+     * Called by producer after points were staged
+     */
+    private final Runnable onStaged;
+
+    /**
+     * @throws IllegalArgumentException if capacity is not positive or exceeds {@link #MAX_CAPACITY}
+     */
+    DataSetFeeder(DataSet dataSet, int capacity, Runnable onStaged) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be within [1, " + MAX_CAPACITY + "]: " + capacity);
+        }
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity) {
+            length <<= 1;
+        }
+        this.dataSet = dataSet;
+        this.capacity = capacity;
+        this.xs = new float[length];
+        this.ys = new float[length];
+        this.mask = length - 1;
+        this.onStaged = onStaged;
+    }
+
+    public DataSet getDataSet() {
+        return dataSet;
+    }
+
+    /**
+     * Stages one point. Must be called from a single producer thread
+     *
+     * @return false if staging buffer is full and point was dropped
+     */
+    public boolean offer(float x, float y) {
+        long write = writeIndex.get();
+        if (write - readIndex.get() >= capacity) {
+            return false;
+        }
+        int slot = (int) (write & mask);
+        xs[slot] = x;
+        ys[slot] = y;
+        writeIndex.lazySet(write + 1);
+        onStaged.run();
+        return true;
+    }
+
+    /**
+     * Stages several points. Must be called from a single producer thread
+     *
+     * @return number of staged points, points that did not fit are dropped
+     */
+    public int offer(float[] xs, float[] ys, int offset, int count) {
+        long write = writeIndex.get();
+        int free = (int) (capacity - (write - readIndex.get()));
+        int staged = Math.min(free, count);
+        for (int i = 0; i < staged; i++) {
+            int slot = (int) ((write + i) & mask);
+            this.xs[slot] = xs[offset + i];
+            this.ys[slot] = ys[offset + i];
+        }
+        if (staged > 0) {
+            writeIndex.lazySet(write + staged);
+            onStaged.run();
+        }
+        return staged;
+    }
+
+    /**
+     * Moves staged points to the data set. Must be called from the thread that owns the data set
+     *
+     * @return true if any point was moved
+     */
+    boolean publish() {
+        long read = readIndex.get();
+        long write = writeIndex.get();
+        int count = (int) (write - read);
+        if (count == 0) {
+            return false;
+        }
+        int start = (int) (read & mask);
+        int firstPart = Math.min(count, mask + 1 - start);
+        dataSet.addPoints(xs, ys, start, firstPart);
+        if (firstPart < count) {
+            dataSet.addPoints(xs, ys, 0, count - firstPart);
+        }
+        readIndex.lazySet(write);
+        return true;
+    }
+}
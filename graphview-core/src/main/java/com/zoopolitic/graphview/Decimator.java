@@ -0,0 +1,19 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Reduces number of points of a line before it is drawn.
+ * Implementations must not allocate, all buffers are owned by the caller.
+ */
+interface Decimator {
+
+    /**
+     * Decimates points
+     *
+     * @param src   source points buffer, [x0, y0, x1, y1, ...] in pixels, sorted by x
+     * @param count number of points in source buffer
+     * @param dst   destination buffer, length of it is at least {@code count * 2}
+     * @param width width of the drawing area in pixels
+     * @return number of points written to destination buffer
+     */
+    int decimate(float[] src, int count, float[] dst, int width);
+}
@@ -0,0 +1,15 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Scroller {@link ViewportManager} starts scrolls and flings with. Methods have the same meaning
+ * as ones of {@code android.widget.OverScroller}
+ */
+public interface GraphScroller {
+
+    void startScroll(int startX, int startY, int dx, int dy, int duration);
+
+    void fling(int startX, int startY, int velocityX, int velocityY,
+               int minX, int maxX, int minY, int maxY, int overX, int overY);
+
+    void forceFinished(boolean finished);
+}
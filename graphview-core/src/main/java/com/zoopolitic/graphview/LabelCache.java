@@ -0,0 +1,94 @@
+package com.zoopolitic.graphview;
+
+import java.util.Arrays;
+
+/**
+ * Bounded LRU cache of formatted axis labels keyed by axis stop value.
+ * <p>
+ * Keeps label already split into lines together with its measured height, so a label that is
+ * visible on screen is formatted and measured only once. Lookups don't allocate: keys are kept in
+ * a primitive array and scanned linearly, which is fast for the few dozens of entries in use.
+ */
+class LabelCache {
+
+    private float[]    keys;
+    private String[][] lines;
+    private float[]    heights;
+    private long[]     lastUsed;
+    private int        count;
+    private long       tick;
+
+    LabelCache(int capacity) {
+        keys = new float[capacity];
+        lines = new String[capacity][];
+        heights = new float[capacity];
+        lastUsed = new long[capacity];
+    }
+
+    /**
+     * Grows cache if it can hold less than the given number of labels
+     */
+    void ensureCapacity(int capacity) {
+        if (keys.length < capacity) {
+            keys = Arrays.copyOf(keys, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+            lastUsed = Arrays.copyOf(lastUsed, capacity);
+        }
+    }
+
+    /**
+     * @return slot of the label for the given value or -1 if it is not cached
+     */
+    int indexOf(float value) {
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == value) {
+                lastUsed[i] = ++tick;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Caches label, evicting the least recently used one if cache is full
+     *
+     * @param value  axis stop value
+     * @param lines  lines of the label, null if formatter returned no label
+     * @param height total height of the lines
+     * @return slot of the label
+     */
+    int put(float value, String[] lines, float height) {
+        int slot;
+        if (count < keys.length) {
+            slot = count++;
+        } else {
+            slot = 0;
+            for (int i = 1; i < count; i++) {
+                if (lastUsed[i] < lastUsed[slot]) {
+                    slot = i;
+                }
+            }
+        }
+        keys[slot] = value;
+        this.lines[slot] = lines;
+        heights[slot] = height;
+        lastUsed[slot] = ++tick;
+        return slot;
+    }
+
+    String[] getLines(int slot) {
+        return lines[slot];
+    }
+
+    float getHeight(int slot) {
+        return heights[slot];
+    }
+
+    void clear() {
+        for (int i = 0; i < count; i++) {
+            lines[i] = null;
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,243 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Level-of-detail pyramid of a data set, lets a wide range of points be drawn with a number of
+ * points proportional to the screen width instead of the number of points in range.
+ * <p>
+ * Level {@code l} splits points into buckets of {@code 2^(BASE_SHIFT + l)} consecutive points
+ * and keeps indices of the min and the max point of every bucket. First and last point of a
+ * bucket follow from its number, so every bucket can be drawn as up to four real points, like in
+ * {@link M4Decimator}. Level {@code l + 1} is built from level {@code l}, the whole pyramid takes
+ * about a quarter of the memory of the points.
+ * <p>
+ * Pyramid is synchronized with the data set on use: appended points update only the last bucket
+ * of every level and points evicted from the beginning, as by {@link RingBufferDataSet}, update
+ * only the first one, any other change rebuilds it. Buckets are aligned to positions of points
+ * counted from the first point at the last rebuild, so evicted points leave empty space at the
+ * beginning of every level. Pyramid is rebuilt once that space outgrows the points, which keeps
+ * memory bounded and costs O(1) per evicted point amortized.
+ */
+class LodPyramid {
+
+    /**
+     * Buckets of the finest level hold 8 points, finer levels would save little over drawing points
+     */
+    static final int BASE_SHIFT = 3;
+
+    /**
+     * Positions of the min and the max point of every bucket, by level
+     */
+    private int[][] minIndices = new int[0][];
+    private int[][] maxIndices = new int[0][];
+
+    private int levelCount;
+
+    /**
+     * Number of points of the data set the pyramid is built for
+     */
+    private int size;
+
+    /**
+     * Position of the first point of the data set, number of points evicted since the last rebuild
+     */
+    private int offset;
+
+    /**
+     * {@link DataSet#getEvictedCount()} at the last rebuild
+     */
+    private int evictedAtRebuild;
+
+    /**
+     * {@link DataSet#getRewriteCount()} the pyramid is built for
+     */
+    private int rewriteCount;
+
+    /**
+     * Brings pyramid up to date with points of the data set
+     */
+    void sync(DataSet dataSet) {
+        int newSize = dataSet.size();
+        int newOffset = dataSet.getEvictedCount() - evictedAtRebuild;
+        int rewrites = dataSet.getRewriteCount();
+        int end = offset + size;
+        if (rewrites != rewriteCount || newOffset + newSize < end || newOffset > newSize) {
+            rewriteCount = rewrites;
+            evictedAtRebuild = dataSet.getEvictedCount();
+            newOffset = 0;
+            end = 0;
+        }
+        boolean evicted = newOffset != offset;
+        offset = newOffset;
+        size = newSize;
+        if (newSize == 0) {
+            levelCount = 0;
+        } else if (evicted || offset + size != end) {
+            update(dataSet, evicted, end);
+        }
+    }
+
+    /**
+     * Recomputes buckets on every level: the first bucket if points were evicted and buckets
+     * containing positions from the given one to the end
+     */
+    private void update(DataSet dataSet, boolean evicted, int from) {
+        int end = offset + size;
+        int level = 0;
+        for (int shift = BASE_SHIFT; ; shift++, level++) {
+            int bucketCount = ((end - 1) >> shift) + 1;
+            ensureLevel(level, bucketCount);
+            int firstBucket = offset >> shift;
+            int bucket = from >> shift;
+            if (evicted && firstBucket < bucket) {
+                updateBucket(dataSet, level, firstBucket);
+            }
+            for (bucket = Math.max(bucket, firstBucket); bucket < bucketCount; bucket++) {
+                updateBucket(dataSet, level, bucket);
+            }
+            if (bucketCount == 1) {
+                break;
+            }
+        }
+        levelCount = level + 1;
+    }
+
+    private void updateBucket(DataSet dataSet, int level, int bucket) {
+        int shift = BASE_SHIFT + level;
+        int end = offset + size;
+        int minIndex;
+        int maxIndex;
+        if (level == 0) {
+            int from = Math.max(offset, bucket << shift);
+            int to = Math.min(end, (bucket + 1) << shift);
+            minIndex = maxIndex = from;
+            for (int i = from + 1; i < to; i++) {
+                float y = y(dataSet, i);
+                if (y < y(dataSet, minIndex)) {
+                    minIndex = i;
+                }
+                if (y > y(dataSet, maxIndex)) {
+                    maxIndex = i;
+                }
+            }
+        } else {
+            int[] childMins = minIndices[level - 1];
+            int[] childMaxs = maxIndices[level - 1];
+            int left = bucket * 2;
+            int right = left + 1;
+            // position of the first point of the right child, children outside of points are empty
+            int middle = right << (shift - 1);
+            if (middle <= offset) {
+                minIndex = childMins[right];
+                maxIndex = childMaxs[right];
+            } else {
+                minIndex = childMins[left];
+                maxIndex = childMaxs[left];
+                if (middle < end) {
+                    if (y(dataSet, childMins[right]) < y(dataSet, minIndex)) {
+                        minIndex = childMins[right];
+                    }
+                    if (y(dataSet, childMaxs[right]) > y(dataSet, maxIndex)) {
+                        maxIndex = childMaxs[right];
+                    }
+                }
+            }
+        }
+        minIndices[level][bucket] = minIndex;
+        maxIndices[level][bucket] = maxIndex;
+    }
+
+    private float y(DataSet dataSet, int position) {
+        return dataSet.getY(position - offset);
+    }
+
+    private void ensureLevel(int level, int bucketCount) {
+        if (level >= minIndices.length) {
+            int[][] newMins = new int[level + 1][];
+            int[][] newMaxs = new int[level + 1][];
+            System.arraycopy(minIndices, 0, newMins, 0, minIndices.length);
+            System.arraycopy(maxIndices, 0, newMaxs, 0, maxIndices.length);
+            minIndices = newMins;
+            maxIndices = newMaxs;
+        }
+        int[] mins = minIndices[level];
+        if (mins == null || mins.length < bucketCount) {
+            int length = mins == null ? bucketCount : Math.max(bucketCount, mins.length + (mins.length >> 1));
+            int[] newMins = new int[length];
+            int[] newMaxs = new int[length];
+            if (mins != null) {
+                System.arraycopy(mins, 0, newMins, 0, mins.length);
+                System.arraycopy(maxIndices[level], 0, newMaxs, 0, mins.length);
+            }
+            minIndices[level] = newMins;
+            maxIndices[level] = newMaxs;
+        }
+    }
+
+    /**
+     * @return number of levels, 0 if data set is empty
+     */
+    int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * Picks the coarsest level which still has at least the given number of buckets within
+     * [from, to) index range
+     *
+     * @param columns min number of buckets, usually width of the drawn range in pixels
+     * @return level or -1 if even the finest level has fewer buckets, points should be drawn as is
+     */
+    int levelFor(int from, int to, int columns) {
+        int level = -1;
+        for (int l = 0; l < levelCount; l++) {
+            if (((to - from) >> (BASE_SHIFT + l)) < columns) {
+                break;
+            }
+            level = l;
+        }
+        return level;
+    }
+
+    /**
+     * @return max number of indices {@link #collect(DataSet, int, int, int, int[])} writes
+     */
+    int maxPoints(int level, int from, int to) {
+        int shift = BASE_SHIFT + level;
+        return (((to - 1 + offset) >> shift) - ((from + offset) >> shift) + 1) * 4;
+    }
+
+    /**
+     * Writes indices of points representing buckets of the level that overlap [from, to) index
+     * range: first, min, max and last point of every bucket in order of indices, without
+     * duplicates. Buckets are not cut at the range bounds, so a few points outside of it may be
+     * written
+     *
+     * @param out buffer of at least {@link #maxPoints(int, int, int)} length
+     * @return number of written indices
+     */
+    int collect(DataSet dataSet, int level, int from, int to, int[] out) {
+        int shift = BASE_SHIFT + level;
+        int[] mins = minIndices[level];
+        int[] maxs = maxIndices[level];
+        int end = offset + size;
+        int lastBucket = (to - 1 + offset) >> shift;
+        int count = 0;
+        for (int bucket = (from + offset) >> shift; bucket <= lastBucket; bucket++) {
+            int first = Math.max(offset, bucket << shift) - offset;
+            int last = Math.min(end, (bucket + 1) << shift) - 1 - offset;
+            int low = Math.min(mins[bucket], maxs[bucket]) - offset;
+            int high = Math.max(mins[bucket], maxs[bucket]) - offset;
+            out[count++] = first;
+            if (low != first && low != last) {
+                out[count++] = low;
+            }
+            if (high != low && high != last) {
+                out[count++] = high;
+            }
+            if (last != first) {
+                out[count++] = last;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,68 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Largest-Triangle-Three-Buckets decimation. Keeps one point per bucket: the one that forms the
+ * largest triangle with the point kept in the previous bucket and the average of the next bucket,
+ * which preserves visible peaks and the overall shape of the line.
+ * Number of buckets is equal to the width of the drawing area.
+ */
+class LttbDecimator implements Decimator {
+
+    @SuppressWarnings("PointlessArithmeticExpression")
+    @Override
+    public int decimate(float[] src, int count, float[] dst, int width) {
+        int threshold = width;
+        if (threshold < 3 || count <= threshold) {
+            System.arraycopy(src, 0, dst, 0, count * 2);
+            return count;
+        }
+
+        // first and last points are always kept, the rest is split into threshold - 2 buckets
+        float every = (float) (count - 2) / (threshold - 2);
+
+        int selected = 0;
+        dst[0] = src[0];
+        dst[1] = src[1];
+        int written = 1;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // average point of the next bucket
+            int nextFrom = (int) ((bucket + 1) * every) + 1;
+            int nextTo = Math.min((int) ((bucket + 2) * every) + 1, count);
+            float avgX = 0;
+            float avgY = 0;
+            for (int i = nextFrom; i < nextTo; i++) {
+                avgX += src[i * 2 + 0];
+                avgY += src[i * 2 + 1];
+            }
+            int nextCount = nextTo - nextFrom;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            // point of the current bucket with the largest triangle
+            int from = (int) (bucket * every) + 1;
+            int to = nextFrom;
+            float ax = src[selected * 2 + 0];
+            float ay = src[selected * 2 + 1];
+            float maxArea = -1;
+            int maxIndex = from;
+            for (int i = from; i < to; i++) {
+                float area = Math.abs((ax - avgX) * (src[i * 2 + 1] - ay)
+                        - (ax - src[i * 2 + 0]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            dst[written * 2 + 0] = src[maxIndex * 2 + 0];
+            dst[written * 2 + 1] = src[maxIndex * 2 + 1];
+            written++;
+            selected = maxIndex;
+        }
+
+        dst[written * 2 + 0] = src[(count - 1) * 2 + 0];
+        dst[written * 2 + 1] = src[(count - 1) * 2 + 1];
+        written++;
+        return written;
+    }
+}
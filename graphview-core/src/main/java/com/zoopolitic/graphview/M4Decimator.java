@@ -0,0 +1,60 @@
+package com.zoopolitic.graphview;
+
+/**
+ * M4 aggregation. For every pixel column keeps only the first, the last, the min and the max
+ * point, so the rasterized line is the same as the line drawn through all points, while the
+ * number of points never exceeds four per pixel column.
+ */
+class M4Decimator implements Decimator {
+
+    @SuppressWarnings("PointlessArithmeticExpression")
+    @Override
+    public int decimate(float[] src, int count, float[] dst, int width) {
+        if (count <= width * 4) {
+            System.arraycopy(src, 0, dst, 0, count * 2);
+            return count;
+        }
+
+        int written = 0;
+        int first = 0;
+        int column = (int) Math.floor(src[0]);
+        int min = 0;
+        int max = 0;
+        for (int i = 1; i <= count; i++) {
+            int currentColumn = i < count ? (int) Math.floor(src[i * 2 + 0]) : column + 1;
+            if (currentColumn != column) {
+                // column finished, emit its points in the original order
+                int last = i - 1;
+                int low = Math.min(min, max);
+                int high = Math.max(min, max);
+                written = write(src, first, dst, written);
+                if (low != first) {
+                    written = write(src, low, dst, written);
+                }
+                if (high != low && high != last) {
+                    written = write(src, high, dst, written);
+                }
+                if (last != first) {
+                    written = write(src, last, dst, written);
+                }
+                first = min = max = i;
+                column = currentColumn;
+            } else {
+                if (src[i * 2 + 1] < src[min * 2 + 1]) {
+                    min = i;
+                }
+                if (src[i * 2 + 1] > src[max * 2 + 1]) {
+                    max = i;
+                }
+            }
+        }
+        return written;
+    }
+
+    @SuppressWarnings("PointlessArithmeticExpression")
+    private static int write(float[] src, int index, float[] dst, int written) {
+        dst[written * 2 + 0] = src[index * 2 + 0];
+        dst[written * 2 + 1] = src[index * 2 + 1];
+        return written + 1;
+    }
+}
@@ -0,0 +1,143 @@
+package com.zoopolitic.graphview;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only data set backed by a memory-mapped file, for histories too large to keep on the heap.
+ * <p>
+ * X and Y columns are mapped as {@link FloatBuffer}s, so opening a file reads only its header and
+ * pages of points are loaded by the OS when they are read. Bounds are stored in the header, so
+ * they are not computed on open. Ranges the graph is going to draw next are touched on a
+ * background thread, so scrolling doesn't wait for disk.
+ * <p>
+ * File layout, little-endian: header of {@link #HEADER_SIZE} bytes (magic, version, number of
+ * points, flags, minX, maxX, minY, maxY), then X column, then Y column. Files are created with
+ * {@link #write(File, DataSet)}.
+ */
+public class MappedDataSet extends DataSet {
+
+    private static final int MAGIC   = 0x41534744; // "ASGD"
+    private static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+
+    private static final int FLAG_SORTED = 1;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private MappedDataSet(int lineColor, int pointColor, FloatBuffer xs, FloatBuffer ys, int size,
+                          boolean sorted, float minX, float maxX, float minY, float maxY) {
+        super(lineColor, pointColor, new MappedPointStorage(xs, ys, size, sorted, minX, maxX, minY, maxY));
+    }
+
+    /**
+     * Maps file written by {@link #write(File, DataSet)}. Only the header is read
+     *
+     * @throws IOException if file can't be read or is not a data set file
+     */
+    public static MappedDataSet open(File file, int lineColor, int pointColor) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Data set header is truncated: " + file);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a data set file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported data set version " + version + ": " + file);
+            }
+            int size = header.getInt();
+            int flags = header.getInt();
+            float minX = header.getFloat();
+            float maxX = header.getFloat();
+            float minY = header.getFloat();
+            float maxY = header.getFloat();
+
+            long columnSize = 4L * size;
+            if (size < 0 || columnSize > Integer.MAX_VALUE) {
+                throw new IOException("Unsupported number of points " + size + ": " + file);
+            }
+            if (channel.size() < HEADER_SIZE + columnSize * 2) {
+                throw new IOException("Data set file is truncated: " + file);
+            }
+            FloatBuffer xs = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, columnSize)
+                    .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            FloatBuffer ys = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + columnSize, columnSize)
+                    .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            return new MappedDataSet(lineColor, pointColor, xs, ys, size,
+                    (flags & FLAG_SORTED) != 0, minX, maxX, minY, maxY);
+        } finally {
+            // mapping stays valid after the channel is closed
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Writes points of the data set to the file in the format {@link #open(File, int, int)} maps
+     */
+    public static void write(File file, DataSet dataSet) throws IOException {
+        int size = dataSet.size();
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            FileChannel channel = stream.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(size);
+            buffer.putInt(dataSet.isSorted() ? FLAG_SORTED : 0);
+            buffer.putFloat(dataSet.getMinX());
+            buffer.putFloat(dataSet.getMaxX());
+            buffer.putFloat(dataSet.getMinY());
+            buffer.putFloat(dataSet.getMaxY());
+            for (int i = 0; i < size; i++) {
+                if (!buffer.hasRemaining()) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putFloat(dataSet.getX(i));
+            }
+            for (int i = 0; i < size; i++) {
+                if (!buffer.hasRemaining()) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putFloat(dataSet.getY(i));
+            }
+            writeFully(channel, buffer);
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Mapped data sets don't keep a level-of-detail pyramid: building it would read the whole file
+     * on the drawing thread and keep about 2 bytes per point on the heap, 200 MB for 100M points.
+     * Sorted files are drawn with {@link M4Decimator} in LOD render mode instead
+     *
+     * @return null
+     */
+    @Override
+    LodPyramid getLodPyramid() {
+        return null;
+    }
+}
@@ -0,0 +1,195 @@
+package com.zoopolitic.graphview;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read-only storage of {@link MappedDataSet} over memory-mapped columns. Bounds come from the
+ * file header, ranges the graph is going to draw next are touched on a background thread.
+ */
+class MappedPointStorage extends PointStorage {
+
+    /**
+     * Number of floats in one 4 KiB page
+     */
+    private static final int PAGE_FLOATS = 1024;
+
+    private static Executor prefetchExecutor;
+
+    private final FloatBuffer xs;
+    private final FloatBuffer ys;
+
+    private final int     size;
+    private final boolean sorted;
+
+    private final float minX;
+    private final float maxX;
+    private final float minY;
+    private final float maxY;
+
+    /**
+     * Columns read by the prefetch thread, so it doesn't share buffers with the UI thread
+     */
+    private final FloatBuffer prefetchXs;
+    private final FloatBuffer prefetchYs;
+
+    private final AtomicBoolean prefetching = new AtomicBoolean();
+
+    /**
+     * Range touched by the last prefetch
+     */
+    private volatile int prefetchedFrom;
+    private volatile int prefetchedTo;
+
+    /**
+     * Sum of values read by prefetch, published so that reads are not optimized away
+     */
+    private volatile float prefetchSink;
+
+    MappedPointStorage(FloatBuffer xs, FloatBuffer ys, int size, boolean sorted,
+                       float minX, float maxX, float minY, float maxY) {
+        this.xs = xs;
+        this.ys = ys;
+        this.size = size;
+        this.sorted = sorted;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.prefetchXs = xs.duplicate();
+        this.prefetchYs = ys.duplicate();
+    }
+
+    @Override
+    int add(float x, float y) {
+        throw new UnsupportedOperationException("MappedDataSet is read-only");
+    }
+
+    @Override
+    int add(float[] xs, float[] ys, int offset, int count) {
+        throw new UnsupportedOperationException("MappedDataSet is read-only");
+    }
+
+    @Override
+    void remove(int from, int to) {
+        throw new UnsupportedOperationException("MappedDataSet is read-only");
+    }
+
+    @Override
+    boolean removeWithin(float fromX, float toX) {
+        throw new UnsupportedOperationException("MappedDataSet is read-only");
+    }
+
+    /**
+     * Touches pages of points within [from, to) range on a background thread, so they are loaded
+     * from disk before they are drawn. Request is dropped if previous one is still running
+     */
+    @Override
+    void prefetch(int from, int to) {
+        final int start = Math.max(0, from);
+        final int end = Math.min(size, to);
+        if (start >= end || (start >= prefetchedFrom && end <= prefetchedTo)) {
+            return;
+        }
+        if (!prefetching.compareAndSet(false, true)) {
+            return;
+        }
+        getPrefetchExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    float sum = 0;
+                    for (int i = start; i < end; i += PAGE_FLOATS) {
+                        sum += prefetchXs.get(i) + prefetchYs.get(i);
+                    }
+                    prefetchSink = sum;
+                    prefetchedFrom = start;
+                    prefetchedTo = end;
+                } finally {
+                    prefetching.set(false);
+                }
+            }
+        });
+    }
+
+    private static synchronized Executor getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "MappedDataSet-prefetch");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return prefetchExecutor;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    boolean isSorted() {
+        return sorted;
+    }
+
+    @Override
+    float getX(int index) {
+        return xs.get(index);
+    }
+
+    @Override
+    float getY(int index) {
+        return ys.get(index);
+    }
+
+    /**
+     * Scans the range, it is expected to be not wider than a few viewports
+     */
+    @Override
+    float getMaxY(int from, int to) {
+        float result = Float.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            result = Math.max(result, ys.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Scans the range, it is expected to be not wider than a few viewports
+     */
+    @Override
+    float getMinY(int from, int to) {
+        float result = Float.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            result = Math.min(result, ys.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    float getMaxX() {
+        return size == 0 ? Float.MIN_VALUE : maxX;
+    }
+
+    @Override
+    float getMinX() {
+        return size == 0 ? Float.MAX_VALUE : minX;
+    }
+
+    @Override
+    float getMaxY() {
+        return size == 0 ? Float.MIN_VALUE : maxY;
+    }
+
+    @Override
+    float getMinY() {
+        return size == 0 ? Float.MAX_VALUE : minY;
+    }
+}
@@ -0,0 +1,183 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Range minimum/maximum index over a column of values.
+ * <p>
+ * Values are split into blocks of {@link #BLOCK_SIZE}, min/max of every block is kept in the
+ * leaves of a segment tree. Query of any range costs O(log n) for whole blocks plus a scan of at
+ * most two partial blocks, updating one value costs the same. The index does not own the values,
+ * the column is passed to every call, so it stays valid when the owner reallocates its storage.
+ */
+class MinMaxIndex {
+
+    private static final int BLOCK_SHIFT = 5;
+
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    /**
+     * Segment trees, node i has children 2i and 2i + 1, leaves start at {@link #leafCount}
+     */
+    private float[] min = new float[2];
+    private float[] max = new float[2];
+
+    /**
+     * Number of leaves, power of two
+     */
+    private int leafCount = 1;
+
+    /**
+     * Rebuilds the whole index
+     *
+     * @param values column of values
+     * @param size   number of values in column
+     */
+    void rebuild(float[] values, int size) {
+        int blocks = blockCount(values.length);
+        int leaves = 1;
+        while (leaves < blocks) {
+            leaves <<= 1;
+        }
+        if (leaves != leafCount) {
+            leafCount = leaves;
+            min = new float[leaves * 2];
+            max = new float[leaves * 2];
+        }
+        for (int block = 0; block < leaves; block++) {
+            computeBlock(values, block, size);
+        }
+        for (int node = leafCount - 1; node > 0; node--) {
+            min[node] = Math.min(min[node * 2], min[node * 2 + 1]);
+            max[node] = Math.max(max[node * 2], max[node * 2 + 1]);
+        }
+    }
+
+    /**
+     * Updates index after value at the given index was written
+     *
+     * @param values column of values
+     * @param index  index of changed value
+     * @param size   number of values in column
+     */
+    void update(float[] values, int index, int size) {
+        int block = index >> BLOCK_SHIFT;
+        if (block >= leafCount) {
+            rebuild(values, size);
+            return;
+        }
+        computeBlock(values, block, size);
+        for (int node = (leafCount + block) >> 1; node > 0; node >>= 1) {
+            min[node] = Math.min(min[node * 2], min[node * 2 + 1]);
+            max[node] = Math.max(max[node * 2], max[node * 2 + 1]);
+        }
+    }
+
+    /**
+     * Updates index after values within [from, to) range were written
+     *
+     * @param values column of values
+     * @param from   index of the first changed value
+     * @param to     index after the last changed value
+     * @param size   number of values in column
+     */
+    void update(float[] values, int from, int to, int size) {
+        if (from >= to) {
+            return;
+        }
+        int firstBlock = from >> BLOCK_SHIFT;
+        int lastBlock = (to - 1) >> BLOCK_SHIFT;
+        if (lastBlock >= leafCount) {
+            rebuild(values, size);
+            return;
+        }
+        for (int block = firstBlock; block <= lastBlock; block++) {
+            computeBlock(values, block, size);
+        }
+        for (int l = (leafCount + firstBlock) >> 1, r = (leafCount + lastBlock) >> 1; l > 0; l >>= 1, r >>= 1) {
+            for (int node = l; node <= r; node++) {
+                min[node] = Math.min(min[node * 2], min[node * 2 + 1]);
+                max[node] = Math.max(max[node * 2], max[node * 2 + 1]);
+            }
+        }
+    }
+
+    /**
+     * @return min value within [from, to) range or {@link Float#POSITIVE_INFINITY} if range is empty
+     */
+    float min(float[] values, int from, int to) {
+        float result = Float.POSITIVE_INFINITY;
+        int firstBlock = (from + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int lastBlock = to >> BLOCK_SHIFT;
+        if (firstBlock >= lastBlock) {
+            for (int i = from; i < to; i++) {
+                result = Math.min(result, values[i]);
+            }
+            return result;
+        }
+        for (int i = from; i < firstBlock << BLOCK_SHIFT; i++) {
+            result = Math.min(result, values[i]);
+        }
+        for (int i = lastBlock << BLOCK_SHIFT; i < to; i++) {
+            result = Math.min(result, values[i]);
+        }
+        for (int l = firstBlock + leafCount, r = lastBlock + leafCount; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                result = Math.min(result, min[l++]);
+            }
+            if ((r & 1) == 1) {
+                result = Math.min(result, min[--r]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return max value within [from, to) range or {@link Float#NEGATIVE_INFINITY} if range is empty
+     */
+    float max(float[] values, int from, int to) {
+        float result = Float.NEGATIVE_INFINITY;
+        int firstBlock = (from + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int lastBlock = to >> BLOCK_SHIFT;
+        if (firstBlock >= lastBlock) {
+            for (int i = from; i < to; i++) {
+                result = Math.max(result, values[i]);
+            }
+            return result;
+        }
+        for (int i = from; i < firstBlock << BLOCK_SHIFT; i++) {
+            result = Math.max(result, values[i]);
+        }
+        for (int i = lastBlock << BLOCK_SHIFT; i < to; i++) {
+            result = Math.max(result, values[i]);
+        }
+        for (int l = firstBlock + leafCount, r = lastBlock + leafCount; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                result = Math.max(result, max[l++]);
+            }
+            if ((r & 1) == 1) {
+                result = Math.max(result, max[--r]);
+            }
+        }
+        return result;
+    }
+
+    private void computeBlock(float[] values, int block, int size) {
+        float blockMin = Float.POSITIVE_INFINITY;
+        float blockMax = Float.NEGATIVE_INFINITY;
+        int end = Math.min((block + 1) << BLOCK_SHIFT, size);
+        for (int i = block << BLOCK_SHIFT; i < end; i++) {
+            float value = values[i];
+            if (value < blockMin) {
+                blockMin = value;
+            }
+            if (value > blockMax) {
+                blockMax = value;
+            }
+        }
+        min[leafCount + block] = blockMin;
+        max[leafCount + block] = blockMax;
+    }
+
+    private static int blockCount(int length) {
+        return Math.max(1, (length + BLOCK_SIZE - 1) >> BLOCK_SHIFT);
+    }
+}
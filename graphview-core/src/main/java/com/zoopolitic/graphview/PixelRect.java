@@ -0,0 +1,65 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Rect with integer coordinates in pixels, counterpart of {@code android.graphics.Rect}
+ */
+public class PixelRect {
+
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public void set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void set(PixelRect rect) {
+        set(rect.left, rect.top, rect.right, rect.bottom);
+    }
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+
+    public int centerX() {
+        return (left + right) >> 1;
+    }
+
+    public int centerY() {
+        return (top + bottom) >> 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PixelRect rect = (PixelRect) o;
+        return left == rect.left && top == rect.top && right == rect.right && bottom == rect.bottom;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = left;
+        result = 31 * result + top;
+        result = 31 * result + right;
+        result = 31 * result + bottom;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PixelRect(" + left + ", " + top + ", " + right + ", " + bottom + ")";
+    }
+}
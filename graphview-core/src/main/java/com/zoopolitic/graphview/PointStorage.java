@@ -0,0 +1,78 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Storage of points of a {@link DataSet}. Data set validates arguments, keeps change counters
+ * and derived caches, storage only keeps points, their order flag, bounds and min/max indices.
+ * Ranges passed to storage are already checked against {@link #size()} and are never empty.
+ */
+abstract class PointStorage {
+
+    abstract int size();
+
+    /**
+     * @return true while every point has been added with X not less than X of the previous point
+     */
+    abstract boolean isSorted();
+
+    abstract float getX(int index);
+
+    abstract float getY(int index);
+
+    /**
+     * @return max Y value of points within [from, to) index range or
+     * {@link Float#NEGATIVE_INFINITY} if range is empty
+     */
+    abstract float getMaxY(int from, int to);
+
+    /**
+     * @return min Y value of points within [from, to) index range or
+     * {@link Float#POSITIVE_INFINITY} if range is empty
+     */
+    abstract float getMinY(int from, int to);
+
+    /**
+     * Bounds of all points, {@link Float#MAX_VALUE} for min and {@link Float#MIN_VALUE} for max
+     * if storage is empty
+     */
+    abstract float getMaxX();
+
+    abstract float getMinX();
+
+    abstract float getMaxY();
+
+    abstract float getMinY();
+
+    /**
+     * Appends point to the end
+     *
+     * @return number of the first points evicted to make room for it
+     */
+    abstract int add(float x, float y);
+
+    /**
+     * Appends points in bulk
+     *
+     * @return number of the first points evicted to make room for them
+     */
+    abstract int add(float[] xs, float[] ys, int offset, int count);
+
+    /**
+     * Removes points within [from, to) index range
+     */
+    abstract void remove(int from, int to);
+
+    /**
+     * Removes points with X within [fromX, toX) range from unsorted storage, sorted storage is
+     * trimmed with {@link #remove(int, int)} by the data set
+     *
+     * @return true if any point was removed
+     */
+    abstract boolean removeWithin(float fromX, float toX);
+
+    /**
+     * Hints that points within [from, to) index range are going to be read soon, see
+     * {@link DataSet#prefetch(int, int)}
+     */
+    void prefetch(int from, int to) {
+    }
+}
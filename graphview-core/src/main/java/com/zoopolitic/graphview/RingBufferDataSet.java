@@ -0,0 +1,28 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Data set with fixed capacity for live data. When it is full every new point overwrites the
+ * oldest one, so memory stays constant however long data is streamed.
+ * <p>
+ * Points are kept in a circular buffer, index 0 is always the oldest point. Min/max of both
+ * columns are kept in {@link MinMaxIndex}es over the buffer slots, so bounds stay correct when
+ * extreme points are evicted without rescanning the buffer. Every added point, overwriting or not,
+ * updates them in O(log capacity) plus a scan of one {@link MinMaxIndex#BLOCK_SIZE} block.
+ * Removing points from the beginning or from the end only moves the bounds of the buffer,
+ * bounds of points are then queried from the indices in O(log capacity). Removing from the middle
+ * compacts the buffer and rebuilds the indices in O(capacity). Unsorted points removed by X
+ * range are compacted in O(capacity) too.
+ */
+public class RingBufferDataSet extends DataSet {
+
+    private final int capacity;
+
+    public RingBufferDataSet(int lineColor, int pointColor, int capacity) {
+        super(lineColor, pointColor, new RingPointStorage(capacity));
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
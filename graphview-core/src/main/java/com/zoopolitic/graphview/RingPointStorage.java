@@ -0,0 +1,263 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Fixed capacity storage of {@link RingBufferDataSet}. Points are kept in a circular buffer,
+ * index 0 is always the oldest point, min/max of both columns are kept in {@link MinMaxIndex}es
+ * over the buffer slots.
+ */
+class RingPointStorage extends PointStorage {
+
+    private final int capacity;
+
+    private final float[] xs;
+    private final float[] ys;
+
+    private final MinMaxIndex xIndex = new MinMaxIndex();
+    private final MinMaxIndex yIndex = new MinMaxIndex();
+
+    /**
+     * Slot of the oldest point
+     */
+    private int head;
+
+    /**
+     * Number of points in buffer
+     */
+    private int size;
+
+    /**
+     * True while every point has been added with X not less than X of the previous point
+     */
+    private boolean sorted = true;
+
+    RingPointStorage(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.xs = new float[capacity];
+        this.ys = new float[capacity];
+        xIndex.rebuild(xs, 0);
+        yIndex.rebuild(ys, 0);
+    }
+
+    /**
+     * Appends point, overwriting the oldest one if buffer is full
+     */
+    @Override
+    int add(float x, float y) {
+        if (size > 0 && x < getX(size - 1)) {
+            sorted = false;
+        }
+        boolean full = size == capacity;
+        int slot;
+        if (!full) {
+            slot = slot(size);
+            size++;
+        } else {
+            slot = head;
+            head = head + 1 == capacity ? 0 : head + 1;
+        }
+        xs[slot] = x;
+        ys[slot] = y;
+        xIndex.update(xs, slot, capacity);
+        yIndex.update(ys, slot, capacity);
+        return full ? 1 : 0;
+    }
+
+    /**
+     * Appends points in bulk, overwriting the oldest ones if buffer is full.
+     * Min/max indices are updated once for the whole batch
+     */
+    @Override
+    int add(float[] xs, float[] ys, int offset, int count) {
+        int evicted = Math.max(0, size + count - capacity);
+        if (count > capacity) {
+            // only the last points fit into the buffer
+            offset += count - capacity;
+            count = capacity;
+            size = 0;
+            head = 0;
+        }
+        int first = slot(size < capacity ? size : 0);
+        for (int i = offset; i < offset + count; i++) {
+            float x = xs[i];
+            if (size > 0 && x < getX(size - 1)) {
+                sorted = false;
+            }
+            int slot;
+            if (size < capacity) {
+                slot = slot(size);
+                size++;
+            } else {
+                slot = head;
+                head = head + 1 == capacity ? 0 : head + 1;
+            }
+            this.xs[slot] = x;
+            this.ys[slot] = ys[i];
+        }
+        int end = first + count;
+        if (end <= capacity) {
+            updateIndices(first, end);
+        } else {
+            updateIndices(first, capacity);
+            updateIndices(0, end - capacity);
+        }
+        return evicted;
+    }
+
+    private void updateIndices(int from, int to) {
+        xIndex.update(xs, from, to, capacity);
+        yIndex.update(ys, from, to, capacity);
+    }
+
+    /**
+     * Ranges starting at the first point or ending at the last point are removed without touching
+     * points or min/max indices, other ranges shift the following points and rebuild min/max
+     * indices in O(capacity)
+     */
+    @Override
+    void remove(int from, int to) {
+        int count = to - from;
+        if (from == 0) {
+            head = slot(to);
+            size -= count;
+        } else if (to == size) {
+            size -= count;
+        } else {
+            for (int i = to; i < size; i++) {
+                int target = slot(i - count);
+                int source = slot(i);
+                xs[target] = xs[source];
+                ys[target] = ys[source];
+            }
+            size -= count;
+            rebuildIndices();
+        }
+    }
+
+    /**
+     * Compacts the buffer in O(capacity)
+     */
+    @Override
+    boolean removeWithin(float fromX, float toX) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int source = slot(i);
+            float x = xs[source];
+            if (x < fromX || x >= toX) {
+                int target = slot(kept);
+                xs[target] = x;
+                ys[target] = ys[source];
+                kept++;
+            }
+        }
+        if (kept == size) {
+            return false;
+        }
+        size = kept;
+        rebuildIndices();
+        return true;
+    }
+
+    private void rebuildIndices() {
+        xIndex.rebuild(xs, capacity);
+        yIndex.rebuild(ys, capacity);
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    boolean isSorted() {
+        return sorted;
+    }
+
+    @Override
+    float getX(int index) {
+        return xs[slot(index)];
+    }
+
+    @Override
+    float getY(int index) {
+        return ys[slot(index)];
+    }
+
+    @Override
+    float getMaxY(int from, int to) {
+        return getMax(yIndex, ys, from, to);
+    }
+
+    @Override
+    float getMinY(int from, int to) {
+        return getMin(yIndex, ys, from, to);
+    }
+
+    @Override
+    float getMaxX() {
+        if (size == 0) {
+            return Float.MIN_VALUE;
+        }
+        return sorted ? getX(size - 1) : getMax(xIndex, xs, 0, size);
+    }
+
+    @Override
+    float getMinX() {
+        if (size == 0) {
+            return Float.MAX_VALUE;
+        }
+        return sorted ? getX(0) : getMin(xIndex, xs, 0, size);
+    }
+
+    @Override
+    float getMaxY() {
+        return size == 0 ? Float.MIN_VALUE : getMaxY(0, size);
+    }
+
+    @Override
+    float getMinY() {
+        return size == 0 ? Float.MAX_VALUE : getMinY(0, size);
+    }
+
+    /**
+     * Queries max value of points within [from, to) index range, splitting it in two slot ranges
+     * if it wraps around the end of the buffer
+     */
+    private float getMax(MinMaxIndex index, float[] values, int from, int to) {
+        if (from >= to) {
+            return Float.NEGATIVE_INFINITY;
+        }
+        int start = slot(from);
+        int end = start + to - from;
+        if (end <= capacity) {
+            return index.max(values, start, end);
+        }
+        return Math.max(index.max(values, start, capacity), index.max(values, 0, end - capacity));
+    }
+
+    /**
+     * Queries min value of points within [from, to) index range, splitting it in two slot ranges
+     * if it wraps around the end of the buffer
+     */
+    private float getMin(MinMaxIndex index, float[] values, int from, int to) {
+        if (from >= to) {
+            return Float.POSITIVE_INFINITY;
+        }
+        int start = slot(from);
+        int end = start + to - from;
+        if (end <= capacity) {
+            return index.min(values, start, end);
+        }
+        return Math.min(index.min(values, start, capacity), index.min(values, 0, end - capacity));
+    }
+
+    /**
+     * @return buffer slot of the point with the given index
+     */
+    private int slot(int index) {
+        int slot = head + index;
+        return slot >= capacity ? slot - capacity : slot;
+    }
+}
@@ -0,0 +1,13 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Maps elapsed fraction of a scale animation to fraction of the scale applied
+ */
+public interface ScaleInterpolator {
+
+    /**
+     * @param input elapsed fraction of the animation from 0 to 1
+     * @return interpolated fraction, 0 at the start and 1 at the end of the animation
+     */
+    float getInterpolation(float input);
+}
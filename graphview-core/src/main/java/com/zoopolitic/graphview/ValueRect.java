@@ -0,0 +1,40 @@
+package com.zoopolitic.graphview;
+
+/**
+ * Rect in graph values, counterpart of {@code android.graphics.RectF}. Top is the min Y value
+ * and bottom is the max Y value
+ */
+public class ValueRect {
+
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public void set(float left, float top, float right, float bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public float width() {
+        return right - left;
+    }
+
+    public float height() {
+        return bottom - top;
+    }
+
+    /**
+     * @return true if rect has zero or negative width or height
+     */
+    public boolean isEmpty() {
+        return left >= right || top >= bottom;
+    }
+
+    @Override
+    public String toString() {
+        return "ValueRect(" + left + ", " + top + ", " + right + ", " + bottom + ")";
+    }
+}
@@ -1,9 +1,5 @@
 package com.zoopolitic.graphview;
 
-import android.os.SystemClock;
-import android.support.v4.view.animation.FastOutSlowInInterpolator;
-import android.view.animation.Interpolator;
-
 /**
  * Created by zoopolitic
  */
@@ -12,7 +8,9 @@ class VerticalScaler {
     /**
      * The interpolator, used for making scale animate 'naturally.'
      */
-    private Interpolator interpolator;
+    private final ScaleInterpolator interpolator;
+
+    private final Clock clock;
 
     /**
      * The total animation duration for a scale.
@@ -25,7 +23,7 @@ class VerticalScaler {
     private boolean finished = true;
 
     /**
-     * The time the scale started, computed using {@link android.os.SystemClock#elapsedRealtime()}.
+     * The time the scale started, computed using {@link Clock#uptimeMillis()}.
      */
     private long startRTC;
 
@@ -52,12 +50,9 @@ class VerticalScaler {
     private float startMaxY;
     private float startMinY;
 
-    public VerticalScaler() {
-        this(null);
-    }
-
-    public VerticalScaler(Interpolator interpolator) {
-        this.interpolator = interpolator == null ? new FastOutSlowInInterpolator() : interpolator;
+    public VerticalScaler(ScaleInterpolator interpolator, Clock clock) {
+        this.interpolator = interpolator;
+        this.clock = clock;
     }
 
     public void setScaleDuration(long duration) {
@@ -68,7 +63,7 @@ class VerticalScaler {
      * Forces the scale finished state to the given value. Unlike {@link #abortAnimation()}, the
      * current scale value isn't set to the ending value.
      *
-     * @see android.widget.Scroller#forceFinished(boolean)
+     * @see "android.widget.Scroller#forceFinished(boolean)"
      */
     public void forceFinished(boolean finished) {
         this.finished = finished;
@@ -77,7 +72,7 @@ class VerticalScaler {
     /**
      * Aborts the animation, setting the current scale value to the ending value.
      *
-     * @see android.widget.Scroller#abortAnimation()
+     * @see "android.widget.Scroller#abortAnimation()"
      */
     public void abortAnimation() {
         finished = true;
@@ -87,10 +82,10 @@ class VerticalScaler {
     /**
      * Starts scaling from current vales to end values
      *
-     * @see android.widget.Scroller#startScroll(int, int, int, int)
+     * @see "android.widget.Scroller#startScroll(int, int, int, int)"
      */
     public void startScalingY(float currentMaxY, float currentMinY, float endMaxY, float endMinY) {
-        startRTC = SystemClock.elapsedRealtime();
+        startRTC = clock.uptimeMillis();
 
         this.endMaxY = endMaxY;
         this.endMinY = endMinY;
@@ -105,14 +100,14 @@ class VerticalScaler {
      * Computes the current maxY, returning true if scaling is still active and false if the
      * scaling has finished.
      *
-     * @see android.widget.Scroller#computeScrollOffset()
+     * @see "android.widget.Scroller#computeScrollOffset()"
      */
     public boolean computeYScale() {
         if (finished) {
             return false;
         }
 
-        long tRTC = SystemClock.elapsedRealtime() - startRTC;
+        long tRTC = clock.uptimeMillis() - startRTC;
         if (tRTC >= animationDurationMillis) {
             finished = true;
             currentMaxY = endMaxY;
@@ -135,7 +130,7 @@ class VerticalScaler {
     /**
      * Returns the current maxY.
      *
-     * @see android.widget.Scroller#getCurrY()
+     * @see "android.widget.Scroller#getCurrY()"
      */
     public float getCurrMaxY() {
         return currentMaxY;
@@ -144,7 +139,7 @@ class VerticalScaler {
     /**
      * Returns the current minY.
      *
-     * @see android.widget.Scroller#getCurrY()
+     * @see "android.widget.Scroller#getCurrY()"
      */
     public float getCurrMinY() {
         return currentMinY;
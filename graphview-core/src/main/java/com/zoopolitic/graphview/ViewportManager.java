@@ -0,0 +1,832 @@
+package com.zoopolitic.graphview;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by zoopolitic
+ */
+class ViewportManager {
+
+    private static final String TAG = "ViewportManager";
+
+    /**
+     * Rect that represents current visible part of graph.
+     * This rect works with values not pixels
+     */
+    private ValueRect viewportRect = new ValueRect();
+
+    /**
+     * Rect for drawing on canvas
+     */
+    public PixelRect contentRect = new PixelRect();
+
+    /**
+     * Buffer for closest to central line points
+     */
+    public float[] closestPointsBuffer = new float[20]; // 10 points
+
+    /**
+     * Number of closestPoints
+     */
+    public int closestPointsCount;
+
+    /**
+     * Point found by the last {@link #findMarker(float, float, float, List)} call and index of its
+     * data set, -1 if no point was found
+     */
+    public float markerX;
+    public float markerY;
+    public int   markerDataSetIndex = -1;
+
+    /**
+     * Distance in pixels from the central line to {@link #closestPointsBuffer} points
+     */
+    private float closestDistance;
+
+    /**
+     * Viewport and data sets {@link #closestPointsBuffer} was computed for
+     */
+    private float     closestKeyLeft  = Float.NaN;
+    private float     closestKeyRight = Float.NaN;
+    private int       closestKeyContentLeft;
+    private int       closestKeyContentRight;
+    private DataSet[] closestKeyDataSets  = new DataSet[0];
+    private int[]     closestKeyModCounts = new int[0];
+    private int       closestKeyCount     = -1;
+
+    /**
+     * Number of times {@link #closestPointsBuffer} was reallocated
+     */
+    public int bufferRegrowths;
+
+    /**
+     * Size of area that we can scroll
+     * width - how much we can scroll horizontally
+     * height - how much we can scroll vertically
+     */
+    public int surfaceWidth;
+    public int surfaceHeight;
+
+    /**
+     * True of scroller is scrolling at the moment
+     */
+    public boolean scrollInProgress;
+
+    /**
+     * Indicates was fling performed or not
+     */
+    private boolean fling;
+
+    /**
+     * Visible range of X values
+     */
+    public int visibleXRange = 7;
+
+    /**
+     * Interval of X axis values
+     */
+    public int xInterval = 1;
+
+    /**
+     * Stops of Y axis
+     */
+    public AxisStops yStops = new AxisStops();
+
+    /**
+     * Stops of X axis
+     */
+    public AxisStops xStops = new AxisStops();
+
+    /**
+     * Min/Max values of X/Y of the viewport
+     */
+    public float maxX = Float.MIN_VALUE;
+    public float minX = Float.MAX_VALUE;
+    public float maxY = Float.MIN_VALUE;
+    public float minY = Float.MAX_VALUE;
+
+    /**
+     * Index of the first point of the window computed by {@link #computeVisibleRange(DataSet, int)}
+     */
+    public int visibleFrom;
+
+    /**
+     * Index after the last point of the window computed by {@link #computeVisibleRange(DataSet, int)}
+     */
+    public int visibleTo;
+
+    /**
+     * Computes range of points of the dataSet that has to be drawn and writes it to
+     * {@link #visibleFrom} and {@link #visibleTo}. Sorted data sets are windowed with binary search,
+     * for unsorted ones whole data set is returned.
+     *
+     * @param dataSet data set to compute range for
+     * @param margin  number of points to include beyond each edge of the viewport, so that lines
+     *                reach edges of the drawing rect
+     */
+    public void computeVisibleRange(DataSet dataSet, int margin) {
+        computeRange(dataSet, viewportRect.left, viewportRect.right, margin);
+    }
+
+    /**
+     * Same as {@link #computeVisibleRange(DataSet, int)} but for arbitrary X range
+     *
+     * @param left  left X value of the range
+     * @param right right X value of the range
+     */
+    public void computeRange(DataSet dataSet, float left, float right, int margin) {
+        int size = dataSet.size();
+        if (dataSet.isSorted()) {
+            visibleFrom = Math.max(0, dataSet.higherIndex(left) - margin);
+            visibleTo = Math.min(size, dataSet.ceilingIndex(right) + margin);
+        } else {
+            visibleFrom = 0;
+            visibleTo = size;
+        }
+    }
+
+    /**
+     * Transforms points within [from, to) range to pixels and writes them to the buffer
+     * as [x0, y0, x1, y1, ...]. Same as {@link #getDrawX(float)} and {@link #getDrawY(float)}
+     * but computes viewport to pixels ratios once
+     *
+     * @param out buffer of at least {@code (to - from) * 2} length
+     */
+    @SuppressWarnings("PointlessArithmeticExpression")
+    public void fillDrawPoints(DataSet dataSet, int from, int to, float[] out) {
+        float left = contentRect.left;
+        float bottom = contentRect.bottom;
+        float ratioX = contentRect.width() / viewportRect.width();
+        float ratioY = contentRect.height() / viewportRect.height();
+        for (int i = from, j = 0; i < to; i++, j++) {
+            out[j * 2 + 0] = left + ratioX * (dataSet.getX(i) - viewportRect.left);
+            out[j * 2 + 1] = bottom - ratioY * (dataSet.getY(i) - viewportRect.top);
+        }
+    }
+
+    /**
+     * Transforms points within [from, to) range to pixels and writes lines connecting them to the
+     * buffer as [startX0, startY0, stopX0, stopY0, ...]. Every point is transformed only once
+     *
+     * @param out buffer of at least {@code (to - from - 1) * 4} length
+     * @return number of written lines
+     */
+    @SuppressWarnings("PointlessArithmeticExpression")
+    public int fillDrawLines(DataSet dataSet, int from, int to, float[] out) {
+        if (to - from < 2) {
+            return 0;
+        }
+        float left = contentRect.left;
+        float bottom = contentRect.bottom;
+        float ratioX = contentRect.width() / viewportRect.width();
+        float ratioY = contentRect.height() / viewportRect.height();
+        float prevX = left + ratioX * (dataSet.getX(from) - viewportRect.left);
+        float prevY = bottom - ratioY * (dataSet.getY(from) - viewportRect.top);
+        int lineCount = 0;
+        for (int i = from + 1; i < to; i++, lineCount++) {
+            float x = left + ratioX * (dataSet.getX(i) - viewportRect.left);
+            float y = bottom - ratioY * (dataSet.getY(i) - viewportRect.top);
+            out[lineCount * 4 + 0] = prevX;
+            out[lineCount * 4 + 1] = prevY;
+            out[lineCount * 4 + 2] = x;
+            out[lineCount * 4 + 3] = y;
+            prevX = x;
+            prevY = y;
+        }
+        return lineCount;
+    }
+
+    /**
+     * Same as {@link #fillDrawLines(DataSet, int, int, float[])} for points at the given indices,
+     * e.g. points picked from {@link LodPyramid}
+     *
+     * @param indices indices of points in the order they are connected
+     * @param out     buffer of at least {@code (count - 1) * 4} length
+     * @return number of written lines
+     */
+    @SuppressWarnings("PointlessArithmeticExpression")
+    public int fillDrawLines(DataSet dataSet, int[] indices, int count, float[] out) {
+        if (count < 2) {
+            return 0;
+        }
+        float left = contentRect.left;
+        float bottom = contentRect.bottom;
+        float ratioX = contentRect.width() / viewportRect.width();
+        float ratioY = contentRect.height() / viewportRect.height();
+        int index = indices[0];
+        float prevX = left + ratioX * (dataSet.getX(index) - viewportRect.left);
+        float prevY = bottom - ratioY * (dataSet.getY(index) - viewportRect.top);
+        int lineCount = 0;
+        for (int i = 1; i < count; i++, lineCount++) {
+            index = indices[i];
+            float x = left + ratioX * (dataSet.getX(index) - viewportRect.left);
+            float y = bottom - ratioY * (dataSet.getY(index) - viewportRect.top);
+            out[lineCount * 4 + 0] = prevX;
+            out[lineCount * 4 + 1] = prevY;
+            out[lineCount * 4 + 2] = x;
+            out[lineCount * 4 + 3] = y;
+            prevX = x;
+            prevY = y;
+        }
+        return lineCount;
+    }
+
+    /**
+     * Set left/top/right/bottom values of drawing rect (area where graph will draw)
+     */
+    public void constrainDrawRect(int left, int top, int right, int bottom) {
+        contentRect.set(left, top, right, bottom);
+    }
+
+    /**
+     * Set left/top/right/bottom values of viewport rect
+     */
+    public void constrainViewportRect(float left, float top, float right, float bottom) {
+        viewportRect.set(left, top, right, bottom);
+    }
+
+    /**
+     * Recalculates min,max X/Y-values from scratch, so that bounds shrink after points were removed
+     */
+    public void calculateMinMax(List<DataSet> dataSets) {
+        maxX = Float.MIN_VALUE;
+        minX = Float.MAX_VALUE;
+        maxY = Float.MIN_VALUE;
+        minY = Float.MAX_VALUE;
+        for (DataSet dataSet : dataSets) {
+            calculateMinMax(dataSet);
+        }
+    }
+
+    /**
+     * Calculates min,max X/Y-values from the provided dataSet
+     */
+    public void calculateMinMax(DataSet dataSet) {
+        if (dataSet.getMaxY() > maxY) {
+            maxY = dataSet.getMaxY();
+        }
+        if (dataSet.getMinY() < minY) {
+            minY = dataSet.getMinY();
+        }
+        if (dataSet.getMaxX() > maxX) {
+            maxX = dataSet.getMaxX();
+        }
+        if (dataSet.getMinX() < minX) {
+            minX = dataSet.getMinX();
+        }
+        if (viewportRect.isEmpty()) {
+            constrainViewportRect(maxX - visibleXRange, minY, maxX, maxY);
+        }
+    }
+
+    /**
+     * Move viewport to new X, Y
+     *
+     * @param newX new value of X (rect left)
+     */
+    public void move(float newX) {
+        float currWidth = viewportRect.width();
+
+        /**
+         * +/- currWidth / 2 for centralLine to be able to reach the most left/right points
+         * and another currWidth / 2 is for overScroll (see {@link #fling(GraphScroller, int, int)}.
+         * So currWidth / 2 + currWidth / 2 = curWidth, so subtract and add currWidth to each side
+         */
+        // maxX - currWidth is available for scroll area
+        newX = Math.max(minX - currWidth, Math.min(newX, maxX - currWidth + currWidth));
+
+        viewportRect.left = newX;
+        viewportRect.right = newX + currWidth;
+    }
+
+    public void moveStart() {
+        float left = minX - visibleXRange * 1f / 2;
+        viewportRect.left = left;
+        viewportRect.right = left + visibleXRange;
+        computeXAxis();
+    }
+
+    public void moveEnd() {
+        float right = maxX + visibleXRange * 1f / 2;
+        viewportRect.left = right - visibleXRange;
+        viewportRect.right = right;
+        computeXAxis();
+    }
+
+    /**
+     * Computes the current scrollable surface size, in pixels. For example, if the entire graph
+     * area is visible, this is simply the current size of {@link #contentRect}. If the graph
+     * is zoomed in 200% in both directions, the returned size will be twice as large horizontally
+     * and vertically.
+     */
+    public void computeScrollSurfaceSize() {
+        surfaceWidth = (int) ((maxX - minX) / viewportRect.width() * contentRect.width());
+        surfaceHeight = (int) ((maxY - minY) / viewportRect.height() * contentRect.height());
+    }
+
+    /**
+     * Check if some graph point was clicked and if yes - scroll to it
+     *
+     * @param x                x value of click
+     * @param y                y value of click
+     * @param pointClickRadius additional radius of click to be triggered
+     * @param scroller         scroller to scroll
+     * @param dataSets         point dataSets
+     * @return true if any marker was clicked, false otherwise
+     */
+    public boolean clickedOnMarker(float x, float y, float pointClickRadius, GraphScroller scroller,
+                                   int duration, List<DataSet> dataSets) {
+        if (!findMarker(x, y, pointClickRadius, dataSets)) {
+            return false;
+        }
+        scrollXTo(scroller, getDrawX(markerX), duration);
+        return true;
+    }
+
+    /**
+     * Finds visible point nearest to the click among points within click radius and writes it to
+     * {@link #markerX}, {@link #markerY} and {@link #markerDataSetIndex}. Sorted data sets are
+     * searched with binary search for points within radius by X, so only points under the finger
+     * are checked. If points of several data sets are equally near, the first data set wins.
+     *
+     * @return true if point was found
+     */
+    boolean findMarker(float x, float y, float pointClickRadius, List<DataSet> dataSets) {
+        float leftValue = getValueX(x - pointClickRadius);
+        float rightValue = getValueX(x + pointClickRadius);
+        float nearestDistance = Float.MAX_VALUE;
+        markerDataSetIndex = -1;
+        for (int i = 0; i < dataSets.size(); i++) {
+            DataSet dataSet = dataSets.get(i);
+            int from;
+            int to;
+            if (dataSet.isSorted()) {
+                from = Math.max(dataSet.higherIndex(viewportRect.left), dataSet.ceilingIndex(leftValue));
+                to = Math.min(dataSet.ceilingIndex(viewportRect.right), dataSet.higherIndex(rightValue));
+            } else {
+                from = 0;
+                to = dataSet.size();
+            }
+            for (int j = from; j < to; j++) {
+                float valueX = dataSet.getX(j);
+                if (valueX <= viewportRect.left || valueX >= viewportRect.right) {
+                    continue;
+                }
+                float xDiff = Math.abs(x - getDrawX(valueX));
+                float yDiff = Math.abs(y - getDrawY(dataSet.getY(j)));
+                if (xDiff < pointClickRadius && yDiff < pointClickRadius) {
+                    float distance = xDiff * xDiff + yDiff * yDiff;
+                    if (distance < nearestDistance) {
+                        nearestDistance = distance;
+                        markerX = valueX;
+                        markerY = dataSet.getY(j);
+                        markerDataSetIndex = i;
+                    }
+                }
+            }
+        }
+        return markerDataSetIndex >= 0;
+    }
+
+    /**
+     * Scrolls to provided X position
+     *
+     * @param scroller scroller to scroll
+     * @param x        x value to scroll
+     */
+    private void scrollXTo(GraphScroller scroller, float x, int duration) {
+        computeScrollSurfaceSize();
+
+        float dx = x - contentRect.centerX();
+
+        if (dx != 0) {
+            scrollInProgress = true;
+            scroller.startScroll(startX(), startY(), (int) dx, 0, duration);
+        }
+    }
+
+    /**
+     * Scrolls by provided X distance
+     *
+     * @param scroller scroller to scroll
+     * @param dx       X distance to scroll
+     */
+    public void scrollXBy(GraphScroller scroller, float dx, int duration) {
+        // prevent scroll beyond right edge point
+        if (viewportRect.left + dx > maxX) {
+            dx = (maxX - visibleXRange * 1f / 2) - viewportRect.left;
+        }
+        // prevent scroll beyond left edge point
+        if (viewportRect.left + dx < minX) {
+            dx = (minX + visibleXRange * 1f / 2) - viewportRect.right;
+        }
+        float distance = dx / viewportRect.width() * contentRect.width();
+        if (distance != 0) {
+            computeScrollSurfaceSize();
+            scrollInProgress = true;
+            scroller.startScroll(startX(), startY(), (int) distance, 0, duration);
+        }
+    }
+
+    /**
+     * Auto scales graph
+     *
+     * @param scaler       scaler to perform scale
+     * @param bottomOffset bottom offset of gr
+     *                     aph
+     * @param dataSets     point dataSets
+     */
+    public void autoScale(VerticalScaler scaler, float bottomOffset, List<DataSet> dataSets) {
+        scrollInProgress = false;
+
+        boolean hasPoints = false;
+        float topPoint = Float.MIN_VALUE;
+        float bottomPoint = Float.MAX_VALUE;
+        for (DataSet dataSet : dataSets) {
+            if (dataSet.isSorted()) {
+                // query min/max index of the data set instead of scanning points
+                int from = dataSet.higherIndex(viewportRect.left);
+                int to = dataSet.ceilingIndex(viewportRect.right);
+                if (from < to) {
+                    hasPoints = true;
+                    topPoint = Math.max(topPoint, dataSet.getMaxY(from, to));
+                    bottomPoint = Math.min(bottomPoint, dataSet.getMinY(from, to));
+                }
+            } else {
+                int size = dataSet.size();
+                for (int i = 0; i < size; i++) {
+                    float x = dataSet.getX(i);
+                    if (x > viewportRect.left && x < viewportRect.right) {
+                        hasPoints = true;
+                        float y = dataSet.getY(i);
+                        if (y > topPoint) {
+                            topPoint = y;
+                        }
+                        if (y < bottomPoint) {
+                            bottomPoint = y;
+                        }
+                    }
+                }
+            }
+        }
+        // no points within current viewport
+        if (!hasPoints) {
+            return;
+        }
+
+        float currMaxY = viewportRect.bottom;
+        float currMinY = viewportRect.top;
+        computeYAxisStops(bottomPoint, topPoint);
+
+        float topAxisY = yStops.stops[yStops.numStops - 1];
+        float bottomAxisY = yStops.stops[0];
+
+        float bottomOffsetFraction = bottomOffset / contentRect.height();
+
+        float newMinY = (bottomAxisY - bottomOffsetFraction * topAxisY) / (1 - bottomOffsetFraction);
+
+        float minDiff = Math.abs(currMinY - newMinY);
+        float maxDiff = Math.abs(currMaxY - topAxisY);
+        if (minDiff > 0 || maxDiff > 0) {
+            scaler.startScalingY(currMaxY, currMinY, topAxisY, newMinY);
+        }
+    }
+
+    /**
+     * Snap to closest x index
+     *
+     * @param scroller scroller to scroll
+     */
+    public void snapToClosestIndex(GraphScroller scroller, int duration) {
+        if (xStops.stops.length == 0) {
+            computeXAxis();
+        }
+        float closestX = Float.MAX_VALUE;
+        float centerX = contentRect.centerX();
+        for (int i = 0; i < xStops.stops.length; i++) {
+            float x = getDrawX(xStops.stops[i]);
+            if (Math.abs(x - centerX) <= Math.abs(closestX - centerX)) {
+                closestX = x;
+            }
+        }
+        scrollXTo(scroller, closestX, duration);
+    }
+
+    /**
+     * Compute closest to central line points. Several points will be written to array if they
+     * have the same distance to the central line, e.g. points of different data sets with the same
+     * X value. Sorted data sets are searched with binary search, so cost doesn't depend on number of
+     * visible points. Result is kept until the viewport moves or data sets change.
+     *
+     * @return number of points examined, 0 if previous result is still valid
+     */
+    public int computeClosestPoints(List<DataSet> dataSets) {
+        if (isClosestPointsKeyValid(dataSets)) {
+            return 0;
+        }
+        saveClosestPointsKey(dataSets);
+
+        closestPointsCount = 0;
+        closestDistance = Float.MAX_VALUE;
+        float centerX = contentRect.centerX();
+        // X value under the central line
+        float centerValue = getValueX(centerX);
+        int examined = 0;
+        for (int i = 0; i < dataSets.size(); i++) {
+            DataSet dataSet = dataSets.get(i);
+            if (dataSet.isSorted()) {
+                int from = dataSet.higherIndex(viewportRect.left);
+                int to = dataSet.ceilingIndex(viewportRect.right);
+                if (from >= to) {
+                    continue;
+                }
+                // closest point is either the last one before the central line or the first one
+                // after it, points with equal X are checked together
+                int index = dataSet.ceilingIndex(centerValue);
+                if (index > from) {
+                    examined += offerClosestRun(dataSet, dataSet.getX(index - 1), from, to, centerX);
+                }
+                if (index < to) {
+                    examined += offerClosestRun(dataSet, dataSet.getX(index), from, to, centerX);
+                }
+            } else {
+                int size = dataSet.size();
+                for (int j = 0; j < size; j++) {
+                    float x = dataSet.getX(j);
+                    if (x > viewportRect.left && x < viewportRect.right) {
+                        offerClosestPoint(x, dataSet.getY(j), centerX);
+                    }
+                }
+                examined += size;
+            }
+        }
+        return examined;
+    }
+
+    /**
+     * Offers all points of sorted data set with the given X within [from, to) range
+     *
+     * @return number of offered points
+     */
+    private int offerClosestRun(DataSet dataSet, float x, int from, int to, float centerX) {
+        int runFrom = Math.max(from, dataSet.ceilingIndex(x));
+        int runTo = Math.min(to, dataSet.higherIndex(x));
+        for (int i = runFrom; i < runTo; i++) {
+            offerClosestPoint(x, dataSet.getY(i), centerX);
+        }
+        return runTo - runFrom;
+    }
+
+    @SuppressWarnings("PointlessArithmeticExpression")
+    private void offerClosestPoint(float x, float y, float centerX) {
+        float distance = Math.abs(getDrawX(x) - centerX);
+        if (distance > closestDistance) {
+            return;
+        }
+        if (distance < closestDistance) {
+            closestDistance = distance;
+            closestPointsCount = 0;
+        }
+        if (closestPointsBuffer.length < closestPointsCount * 2 + 2) {
+            closestPointsBuffer = Arrays.copyOf(closestPointsBuffer, closestPointsBuffer.length * 2);
+            bufferRegrowths++;
+        }
+        closestPointsBuffer[closestPointsCount * 2 + 0] = x;
+        closestPointsBuffer[closestPointsCount * 2 + 1] = y;
+        closestPointsCount++;
+    }
+
+    private boolean isClosestPointsKeyValid(List<DataSet> dataSets) {
+        if (closestKeyLeft != viewportRect.left
+                || closestKeyRight != viewportRect.right
+                || closestKeyContentLeft != contentRect.left
+                || closestKeyContentRight != contentRect.right
+                || closestKeyCount != dataSets.size()) {
+            return false;
+        }
+        for (int i = 0; i < closestKeyCount; i++) {
+            DataSet dataSet = dataSets.get(i);
+            if (closestKeyDataSets[i] != dataSet || closestKeyModCounts[i] != dataSet.getModCount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void saveClosestPointsKey(List<DataSet> dataSets) {
+        int count = dataSets.size();
+        if (closestKeyDataSets.length < count) {
+            closestKeyDataSets = new DataSet[count];
+            closestKeyModCounts = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            DataSet dataSet = dataSets.get(i);
+            closestKeyDataSets[i] = dataSet;
+            closestKeyModCounts[i] = dataSet.getModCount();
+        }
+        closestKeyCount = count;
+        closestKeyLeft = viewportRect.left;
+        closestKeyRight = viewportRect.right;
+        closestKeyContentLeft = contentRect.left;
+        closestKeyContentRight = contentRect.right;
+    }
+
+    /**
+     * Compute stops for Y Axis
+     *
+     * @param minY min Y value (bottom value constraint)
+     * @param maxY max Y value (top value constraint)
+     */
+    void computeYAxisStops(float minY, float maxY) {
+        int start = (int) minY;
+        int end = (int) Math.ceil(maxY);
+        float range = end - start;
+        if (range < 0) {
+            return;
+        }
+
+        int stepsCount = 2;
+        if (range == 0) {
+            start -= stepsCount;
+            end += stepsCount;
+        }
+        int interval = range == 0 ? stepsCount : (int) Math.ceil(range / stepsCount);
+        while (start + interval * stepsCount <= end) {
+            stepsCount++;
+            interval = range == 0 ? stepsCount : (int) Math.ceil(range / stepsCount);
+        }
+
+        float value = start;
+        int n = 1;
+        while (value <= end) {
+            value += interval;
+            n++;
+        }
+        yStops.numStops = n;
+        if (yStops.stops.length < n) {
+            yStops.stops = new float[n];
+        }
+        value = start;
+        for (int i = 0; i < n; i++, value += interval) {
+            yStops.stops[i] = value;
+        }
+    }
+
+    /**
+     * Compute stops for X Axis
+     */
+    public void computeXAxis() {
+        xStops.numStops = visibleXRange;
+        if (xStops.stops.length < visibleXRange) {
+            xStops.stops = new float[visibleXRange];
+        }
+        int value = (int) Math.ceil(viewportRect.left);
+        for (int i = 0; i < visibleXRange; i++, value += xInterval) {
+            xStops.stops[i] = value;
+        }
+    }
+
+    /**
+     * Reacts on fling from GestureDetector's fling hook
+     *
+     * @param scroller  scroller to start fling
+     * @param velocityX X fling velocity
+     * @param velocityY Y fling velocity
+     */
+    public void fling(GraphScroller scroller, int velocityX, int velocityY) {
+        fling = true;
+        // +/- contentRect.width() / 2 is to be able to scroll half of the screen left/right
+        // (for centralLine to be able to reach the most left/right point)
+        int minX = 0 - contentRect.width() / 2;
+        int maxX = (surfaceWidth - contentRect.width()) + contentRect.width() / 2;
+        scroller.forceFinished(true);
+        scroller.fling(
+                startX(),
+                startY(),
+                velocityX,
+                velocityY,
+                minX, maxX,
+                0, surfaceHeight - contentRect.height(),
+                contentRect.width() / 2,
+                contentRect.height() / 2
+        );
+    }
+
+    /**
+     * Reacts on scroll from GestureDetector's scroll hook
+     *
+     * @param distanceX scrolled X distance in pixels
+     * @param distanceY scrolled Y distance in pixels
+     */
+    public void onScroll(float distanceX, float distanceY) {
+        // transform drawing X/Y to viewport's X/Y
+        float viewportXOffset = distanceX / contentRect.width() * viewportRect.width();
+        // compute how much we can scroll
+        computeScrollSurfaceSize();
+        // compute X-axis values
+        computeXAxis();
+        // set new viewports left
+        move(viewportRect.left + viewportXOffset);
+    }
+
+    /**
+     * Returns start X value to perform scroll or fling
+     */
+    public int startX() {
+        return (int) (surfaceWidth * (viewportRect.left - minX) / (maxX - minX));
+    }
+
+    /**
+     * Returns start Y value to perform scroll or fling
+     */
+    public int startY() {
+        return (int) (surfaceHeight * (maxY - viewportRect.bottom) / (maxY - minY));
+    }
+
+    /**
+     * @param x current X value in pixels
+     * @return current X value of the viewport
+     */
+    public float currentXRange(float x) {
+        return minX + (maxX - minX) * (x / surfaceWidth);
+    }
+
+    /**
+     * @param y current Y value in pixels
+     * @return current Y value of the viewport
+     */
+    public float currentYRange(float y) {
+        return maxY - (maxY - minY) * (y / surfaceHeight);
+    }
+
+    /**
+     * Transforms viewport's X value to X value for drawing on canvas (pixels)
+     *
+     * @param x viewport's X value
+     * @return draw X value
+     */
+    public float getDrawX(float x) {
+        return contentRect.left + contentRect.width() * (x - viewportRect.left) / viewportRect.width();
+    }
+
+    /**
+     * Transforms X value for drawing on canvas (pixels) to viewport's X value
+     *
+     * @param x draw X value
+     * @return viewport's X value
+     */
+    public float getValueX(float x) {
+        return viewportRect.left + (x - contentRect.left) / contentRect.width() * viewportRect.width();
+    }
+
+    /**
+     * Transforms viewport's Y value to Y value for drawing on canvas (pixels)
+     *
+     * @param y viewport's Y value
+     * @return Y value for drawing on canvas
+     */
+    public float getDrawY(float y) {
+        return contentRect.bottom - contentRect.height() * (y - viewportRect.top) / viewportRect.height();
+    }
+
+    public void setVisibleXRange(int visibleXRange) {
+        this.visibleXRange = visibleXRange;
+    }
+
+    public void setXInterval(int xInterval) {
+        this.xInterval = xInterval;
+    }
+
+    public boolean isFling() {
+        return fling;
+    }
+
+    public void setFling(boolean fling) {
+        this.fling = fling;
+    }
+
+    public float left() {
+        return viewportRect.left;
+    }
+
+    public float right() {
+        return viewportRect.right;
+    }
+
+    public float top() {
+        return viewportRect.top;
+    }
+
+    public void setTop(float top) {
+        viewportRect.top = top;
+    }
+
+    public float bottom() {
+        return viewportRect.bottom;
+    }
+
+    public void setBottom(float bottom) {
+        viewportRect.bottom = bottom;
+    }
+}
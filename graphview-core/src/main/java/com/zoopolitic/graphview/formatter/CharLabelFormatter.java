@@ -0,0 +1,18 @@
+package com.zoopolitic.graphview.formatter;
+
+/**
+ * Allocation free alternative to {@link LabelFormatter}: central label is written into a buffer
+ * owned by the graph instead of being returned as a new string every frame.
+ */
+public interface CharLabelFormatter {
+
+    /**
+     * Formats central label output into the buffer. Buffer is cleared before the call.
+     * Called only when closest to central line points change.
+     *
+     * @param points points buffer
+     * @param count  points count. Important: iterate through points while i less then count
+     * @param out    buffer to write label to, use {@link LabelBuffer#newLine()} to split lines
+     */
+    void format(float[] points, int count, LabelBuffer out);
+}
@@ -0,0 +1,172 @@
+package com.zoopolitic.graphview.formatter;
+
+import java.util.Arrays;
+
+/**
+ * Reusable character buffer the central label is formatted into by {@link CharLabelFormatter}.
+ * Text is split into lines with {@link #newLine()}, trailing empty line is ignored.
+ * Buffer grows only when text doesn't fit, so formatting the same label again doesn't allocate.
+ */
+public class LabelBuffer {
+
+    private static final long POW10[] = {1, 10, 100, 1000, 10000, 100000, 1000000};
+
+    private char[] chars = new char[64];
+    private int    length;
+
+    private int[] lineStarts = new int[8];
+    private int[] lineEnds   = new int[8];
+
+    /**
+     * Number of lines finished with {@link #newLine()}
+     */
+    private int finishedLines;
+
+    /**
+     * Start of the line which is not finished yet
+     */
+    private int lineStart;
+
+    public void clear() {
+        length = 0;
+        finishedLines = 0;
+        lineStart = 0;
+    }
+
+    public LabelBuffer append(char c) {
+        ensureCapacity(length + 1);
+        chars[length++] = c;
+        return this;
+    }
+
+    public LabelBuffer append(CharSequence text) {
+        int count = text.length();
+        ensureCapacity(length + count);
+        for (int i = 0; i < count; i++) {
+            chars[length++] = text.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Appends float value the same way as {@link Float#toString(float)}: the shortest decimal
+     * which reads back as the same float, with at least one decimal. Values from 0.001 to 10^7,
+     * written by {@link Float#toString(float)} without exponent, are appended without allocations
+     */
+    public LabelBuffer append(float value) {
+        float abs = Math.abs(value);
+        if (Float.isNaN(value) || abs >= 1e7f || (abs < 1e-3f && abs != 0)) {
+            return append(Float.toString(value));
+        }
+        if (Float.floatToRawIntBits(value) < 0) {
+            append('-');
+        }
+        long pow = 10;
+        for (int decimals = 1; ; decimals++, pow *= 10) {
+            // ties are rounded to even digit as Float.toString does
+            long scaled = (long) Math.rint((double) abs * pow);
+            if ((float) ((double) scaled / pow) == abs) {
+                appendDigits(scaled / pow, 1);
+                append('.');
+                appendDigits(scaled % pow, decimals);
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Appends float value rounded to the given number of decimals. Trailing zeros of the fraction
+     * are dropped, but at least one decimal is kept, so 70.50 is appended as "70.5" and 70 as "70.0"
+     *
+     * @param value       value to append
+     * @param maxDecimals max number of decimals, from 0 to 6
+     */
+    public LabelBuffer append(float value, int maxDecimals) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return append(String.valueOf(value));
+        }
+        if (maxDecimals >= POW10.length) {
+            maxDecimals = POW10.length - 1;
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        long pow = POW10[maxDecimals];
+        long scaled = Math.round((double) value * pow);
+        appendDigits(scaled / pow, 1);
+        if (maxDecimals > 0) {
+            long fraction = scaled % pow;
+            int decimals = maxDecimals;
+            while (decimals > 1 && fraction % 10 == 0) {
+                fraction /= 10;
+                decimals--;
+            }
+            append('.');
+            appendDigits(fraction, decimals);
+        }
+        return this;
+    }
+
+    /**
+     * Finishes current line
+     */
+    public LabelBuffer newLine() {
+        if (lineStarts.length == finishedLines) {
+            lineStarts = Arrays.copyOf(lineStarts, finishedLines * 2);
+            lineEnds = Arrays.copyOf(lineEnds, finishedLines * 2);
+        }
+        lineStarts[finishedLines] = lineStart;
+        lineEnds[finishedLines] = length;
+        finishedLines++;
+        lineStart = length;
+        return this;
+    }
+
+    /**
+     * @return characters of the buffer, lines are addressed with {@link #getLineStart(int)} and
+     * {@link #getLineEnd(int)}
+     */
+    public char[] getChars() {
+        return chars;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int getLineCount() {
+        return lineStart < length ? finishedLines + 1 : finishedLines;
+    }
+
+    public int getLineStart(int line) {
+        return line < finishedLines ? lineStarts[line] : lineStart;
+    }
+
+    public int getLineEnd(int line) {
+        return line < finishedLines ? lineEnds[line] : length;
+    }
+
+    /**
+     * Appends non-negative number padded with zeros to the given number of digits
+     */
+    private void appendDigits(long value, int minDigits) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, minDigits);
+        ensureCapacity(length + digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (chars.length < capacity) {
+            chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.zoopolitic.graphview.formatter;
+
+/**
+ * Created by zoopolitic on 28 Апрель 2016 17:43.
+ */
+public class SimpleLabelFormatter implements LabelFormatter, CharLabelFormatter {
+
+    StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Max number of decimals of values written by {@link #format(float[], int, LabelBuffer)},
+     * -1 to write them at full precision
+     */
+    private final int maxDecimals;
+
+    /**
+     * Creates formatter which writes values at full precision, as {@link Float#toString(float)}
+     */
+    public SimpleLabelFormatter() {
+        this.maxDecimals = -1;
+    }
+
+    /**
+     * Creates formatter which rounds values to the given number of decimals in
+     * {@link #format(float[], int, LabelBuffer)}, see {@link LabelBuffer#append(float, int)}
+     *
+     * @param maxDecimals max number of decimals, from 0 to 6
+     */
+    public SimpleLabelFormatter(int maxDecimals) {
+        if (maxDecimals < 0) {
+            throw new IllegalArgumentException("Max decimals must not be negative: " + maxDecimals);
+        }
+        this.maxDecimals = maxDecimals;
+    }
+
+    @Override
+    public String getFormattedValue(float[] points, int count) {
+        buffer.setLength(0);
+        for (int i = 0; i < count; i += 2) {
+            buffer.append(points[i + 1]);
+            buffer.append(" kg");
+            buffer.append("\n");
+        }
+        return buffer.toString();
+    }
+
+    @Override
+    public void format(float[] points, int count, LabelBuffer out) {
+        for (int i = 0; i < count; i += 2) {
+            if (maxDecimals < 0) {
+                out.append(points[i + 1]);
+            } else {
+                out.append(points[i + 1], maxDecimals);
+            }
+            out.append(" kg");
+            out.newLine();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DataSetCodecTest {
+
+    @Test
+    public void rawY_restoresPointsExactly() throws Exception {
+        DataSet dataSet = new DataSet(0xFF00FF00, 0xFFFF0000);
+        for (int i = 0; i < 100000; i++) {
+            dataSet.addPoint(1462000000 + i * 60, (float) Math.sin(i * 0.01) * 100);
+        }
+        byte[] bytes = encode(dataSet, 0);
+        DataSet decoded = decode(bytes);
+
+        assertEquals(dataSet.size(), decoded.size());
+        assertTrue(decoded.isSorted());
+        assertEquals(0xFF00FF00, decoded.getLineColor());
+        assertEquals(0xFFFF0000, decoded.getPointColor());
+        for (int i = 0; i < dataSet.size(); i++) {
+            assertEquals(dataSet.getX(i), decoded.getX(i), 0);
+            assertEquals(dataSet.getY(i), decoded.getY(i), 0);
+        }
+        assertEquals(dataSet.getMinX(), decoded.getMinX(), 0);
+        assertEquals(dataSet.getMaxX(), decoded.getMaxX(), 0);
+        assertEquals(dataSet.getMinY(), decoded.getMinY(), 0);
+        assertEquals(dataSet.getMaxY(), decoded.getMaxY(), 0);
+        assertEquals(dataSet.getMaxY(1000, 5000), decoded.getMaxY(1000, 5000), 0);
+        // evenly spaced X takes less than 4 bytes per point
+        assertTrue(bytes.length < DataSetCodec.HEADER_SIZE + dataSet.size() * 7);
+    }
+
+    @Test
+    public void quantizedY_restoresPointsWithinHalfOfQuantum() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 10000; i++) {
+            dataSet.addPoint(i, 100 + (float) Math.sin(i * 0.01) * 20);
+        }
+        DataSet decoded = decode(encode(dataSet, 0.01f));
+
+        assertEquals(dataSet.size(), decoded.size());
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < dataSet.size(); i++) {
+            assertEquals(dataSet.getX(i), decoded.getX(i), 0);
+            assertEquals(dataSet.getY(i), decoded.getY(i), 0.005f + 1e-4f);
+            maxY = Math.max(maxY, decoded.getY(i));
+        }
+        assertEquals(dataSet.getMinY(), decoded.getMinY(), 0);
+        assertEquals(maxY, decoded.getMaxY(), 0);
+    }
+
+    @Test
+    public void quantizedY_restoresLargeValuesWithinHalfOfQuantum() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 10000; i++) {
+            dataSet.addPoint(i, -50000 + i * 13.37f);
+        }
+        float quantum = 0.1f;
+        DataSet decoded = decode(encode(dataSet, quantum));
+
+        for (int i = 0; i < dataSet.size(); i++) {
+            float y = dataSet.getY(i);
+            assertEquals(y, decoded.getY(i), quantum / 2 + Math.ulp(y));
+        }
+    }
+
+    @Test
+    public void unsortedDataSet_staysUnsorted() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        dataSet.addPoint(5, 1);
+        dataSet.addPoint(-3, 2);
+        dataSet.addPoint(10, -4);
+        DataSet decoded = decode(encode(dataSet, 0));
+
+        assertFalse(decoded.isSorted());
+        assertEquals(-3, decoded.getX(1), 0);
+        assertEquals(-3, decoded.getMinX(), 0);
+        assertEquals(10, decoded.getMaxX(), 0);
+    }
+
+    @Test
+    public void decodedDataSet_acceptsNewPoints() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        dataSet.addPoint(1, 1);
+        dataSet.addPoint(2, 2);
+        DataSet decoded = decode(encode(dataSet, 0));
+        decoded.addPoint(3, -1);
+
+        assertEquals(3, decoded.size());
+        assertEquals(3, decoded.getMaxX(), 0);
+        assertEquals(-1, decoded.getMinY(), 0);
+    }
+
+    @Test
+    public void emptyDataSet() throws Exception {
+        DataSet decoded = decode(encode(new DataSet(0, 0), 0));
+
+        assertEquals(0, decoded.size());
+        assertEquals(new DataSet(0, 0).getMinX(), decoded.getMinX(), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedData_throws() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addPoint(i, i);
+        }
+        byte[] bytes = encode(dataSet, 0);
+        decode(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptNumberOfPoints_throws() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addPoint(i, i);
+        }
+        byte[] bytes = encode(dataSet, 0);
+        // number of points follows magic, version and flags
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(12, Integer.MAX_VALUE);
+        decode(bytes);
+    }
+
+    @Test(expected = IOException.class)
+    public void foreignData_throws() throws Exception {
+        decode(new byte[DataSetCodec.HEADER_SIZE]);
+    }
+
+    private static byte[] encode(DataSet dataSet, float yQuantum) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        DataSetCodec.write(Channels.newChannel(stream), dataSet, yQuantum);
+        return stream.toByteArray();
+    }
+
+    private static DataSet decode(byte[] bytes) throws IOException {
+        return DataSetCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DataSetFeederTest {
+
+    @Test
+    public void offer_dropsPointsWhenFull() throws Exception {
+        AtomicInteger staged = new AtomicInteger();
+        DataSetFeeder feeder = new DataSetFeeder(new DataSet(0, 0), 3, new CountingRunnable(staged));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(feeder.offer(i, i));
+        }
+        assertFalse(feeder.offer(3, 3));
+        assertEquals(3, staged.get());
+
+        assertTrue(feeder.publish());
+        assertFalse(feeder.publish());
+        assertEquals(3, feeder.getDataSet().size());
+    }
+
+    @Test
+    public void offerBatch_stagesAtMostCapacity() throws Exception {
+        DataSetFeeder feeder = new DataSetFeeder(new DataSet(0, 0), 3, new CountingRunnable(new AtomicInteger()));
+        float[] values = {0, 1, 2, 3, 4};
+        assertEquals(2, feeder.offer(values, values, 0, 2));
+        assertEquals(1, feeder.offer(values, values, 2, 3));
+
+        assertTrue(feeder.publish());
+        assertEquals(2, feeder.offer(values, values, 3, 2));
+        assertTrue(feeder.publish());
+        assertEquals(5, feeder.getDataSet().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooLargeCapacity_throws() throws Exception {
+        new DataSetFeeder(new DataSet(0, 0), DataSetFeeder.MAX_CAPACITY + 1, new CountingRunnable(new AtomicInteger()));
+    }
+
+    @Test
+    public void publish_keepsOrderOfPointsFromProducerThread() throws Exception {
+        final int count = 200000;
+        final DataSetFeeder feeder = new DataSetFeeder(new DataSet(0, 0), 1024, new CountingRunnable(new AtomicInteger()));
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    while (!feeder.offer(i, -i)) {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        producer.start();
+        DataSet dataSet = feeder.getDataSet();
+        while (producer.isAlive() || dataSet.size() < count) {
+            feeder.publish();
+        }
+        producer.join();
+
+        assertEquals(count, dataSet.size());
+        assertTrue(dataSet.isSorted());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, dataSet.getX(i), 0);
+            assertEquals(-i, dataSet.getY(i), 0);
+        }
+    }
+
+    private static class CountingRunnable implements Runnable {
+
+        private final AtomicInteger counter;
+
+        CountingRunnable(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void run() {
+            counter.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DataSetTest {
+
+    private static final int POINTS_COUNT = 1000000;
+
+    @Test
+    public void addPoint_storesPointsInOrder() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addPoint(i, i * 2);
+        }
+        assertEquals(100, dataSet.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, dataSet.getX(i), 0);
+            assertEquals(i * 2, dataSet.getY(i), 0);
+        }
+        assertEquals(0, dataSet.getMinX(), 0);
+        assertEquals(99, dataSet.getMaxX(), 0);
+        assertEquals(0, dataSet.getMinY(), 0);
+        assertEquals(198, dataSet.getMaxY(), 0);
+    }
+
+    @Test
+    public void listConstructor_copiesPoints() throws Exception {
+        List<DataPoint> points = new ArrayList<>();
+        points.add(new DataPoint(1, 10));
+        points.add(new DataPoint(2, 15));
+        points.add(new DataPoint(3, 5));
+        DataSet dataSet = new DataSet(0, 0, points);
+
+        assertEquals(3, dataSet.size());
+        assertEquals(15, dataSet.getMaxY(), 0);
+        assertEquals(5, dataSet.getMinY(), 0);
+
+        List<DataPoint> view = dataSet.getPoints();
+        assertEquals(3, view.size());
+        assertEquals(2, view.get(1).x, 0);
+        assertEquals(15, view.get(1).y, 0);
+    }
+
+    @Test
+    public void removePoint_shiftsFollowingPoints() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        dataSet.addPoint(1, 10);
+        dataSet.addPoint(2, 20);
+        dataSet.addPoint(3, 30);
+        dataSet.removePoint(new DataPoint(2, 20));
+
+        assertEquals(2, dataSet.size());
+        assertEquals(3, dataSet.getX(1), 0);
+        assertEquals(30, dataSet.getY(1), 0);
+    }
+
+    @Test
+    public void removePoints_tightensBounds() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 1000; i++) {
+            dataSet.addPoint(i, i % 2 == 0 ? -i : i);
+        }
+
+        dataSet.removePoints(0, 500);
+        assertEquals(500, dataSet.size());
+        assertEquals(500, dataSet.getX(0), 0);
+        assertEquals(500, dataSet.getMinX(), 0);
+        assertEquals(-998, dataSet.getMinY(), 0);
+        assertEquals(999, dataSet.getMaxY(), 0);
+
+        dataSet.removePoints(498, 500);
+        assertEquals(997, dataSet.getMaxX(), 0);
+        assertEquals(997, dataSet.getMaxY(), 0);
+        assertEquals(-996, dataSet.getMinY(), 0);
+
+        dataSet.removePoint(10);
+        assertEquals(511, dataSet.getX(10), 0);
+        assertEquals(497, dataSet.size());
+    }
+
+    @Test
+    public void removePointsInXRange_removesSortedAndUnsortedPoints() throws Exception {
+        DataSet sorted = new DataSet(0, 0);
+        DataSet unsorted = new DataSet(0, 0);
+        for (int i = 0; i < 10; i++) {
+            sorted.addPoint(i, i);
+            unsorted.addPoint(9 - i, 9 - i);
+        }
+
+        sorted.removePoints(0f, 5f);
+        unsorted.removePoints(0f, 5f);
+
+        assertEquals(5, sorted.size());
+        assertEquals(5, sorted.getMinY(), 0);
+        assertEquals(5, unsorted.size());
+        assertEquals(5, unsorted.getMinX(), 0);
+        assertEquals(9, unsorted.getMaxX(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void removePointsInXRange_rejectsReversedRangeOfSortedPoints() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 10; i++) {
+            dataSet.addPoint(i, i);
+        }
+        dataSet.removePoints(5f, 2f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void removePointsInXRange_rejectsReversedRangeOfUnsortedPoints() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 10; i++) {
+            dataSet.addPoint(9 - i, i);
+        }
+        dataSet.removePoints(5f, 2f);
+    }
+
+    @Test
+    public void addPoint_reusesSpaceOfRemovedPoints() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 10000; i++) {
+            dataSet.addPoint(i, i);
+            if (dataSet.size() > 100) {
+                dataSet.removePoint(0);
+            }
+        }
+        assertEquals(100, dataSet.size());
+        assertEquals(9900, dataSet.getMinX(), 0);
+        assertEquals(9999, dataSet.getMaxY(), 0);
+        assertEquals(9950, dataSet.getMinY(50, 100), 0);
+    }
+
+    @Test
+    public void addPoints_matchesAddPoint() throws Exception {
+        Random random = new Random(11);
+        float[] xs = new float[3000];
+        float[] ys = new float[3000];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = i;
+            ys[i] = random.nextFloat();
+        }
+        DataSet single = new DataSet(0, 0);
+        DataSet bulk = new DataSet(0, 0);
+        for (int i = 0; i < xs.length; i++) {
+            single.addPoint(xs[i], ys[i]);
+        }
+        bulk.addPoint(xs[0], ys[0]);
+        bulk.addPoints(xs, ys, 1, 999);
+        bulk.addPoints(xs, ys, 1000, 2000);
+
+        assertEquals(single.size(), bulk.size());
+        assertTrue(bulk.isSorted());
+        assertEquals(single.getMinY(), bulk.getMinY(), 0);
+        assertEquals(single.getMaxY(), bulk.getMaxY(), 0);
+        assertEquals(single.getMaxX(), bulk.getMaxX(), 0);
+        assertEquals(single.getMaxY(1500, 2500), bulk.getMaxY(1500, 2500), 0);
+        assertEquals(single.getY(2999), bulk.getY(2999), 0);
+    }
+
+    @Test
+    public void binarySearch_findsWindowBounds() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        dataSet.addPoint(1, 0);
+        dataSet.addPoint(2, 0);
+        dataSet.addPoint(2, 0);
+        dataSet.addPoint(4, 0);
+
+        assertTrue(dataSet.isSorted());
+        assertEquals(0, dataSet.ceilingIndex(0));
+        assertEquals(1, dataSet.ceilingIndex(2));
+        assertEquals(3, dataSet.higherIndex(2));
+        assertEquals(3, dataSet.ceilingIndex(3));
+        assertEquals(4, dataSet.higherIndex(4));
+        assertEquals(4, dataSet.ceilingIndex(5));
+    }
+
+    @Test
+    public void addPoint_detectsOutOfOrderData() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        dataSet.addPoint(1, 0);
+        dataSet.addPoint(3, 0);
+        dataSet.addPoint(2, 0);
+
+        assertFalse(dataSet.isSorted());
+    }
+
+    @Test
+    public void columns_useLessMemoryThanBoxedPoints() throws Exception {
+        long before = usedMemory();
+        List<DataPoint> boxed = new ArrayList<>(POINTS_COUNT);
+        for (int i = 0; i < POINTS_COUNT; i++) {
+            boxed.add(new DataPoint(i, i));
+        }
+        long boxedBytes = usedMemory() - before;
+
+        before = usedMemory();
+        DataSet columns = new DataSet(0, 0, POINTS_COUNT);
+        for (int i = 0; i < POINTS_COUNT; i++) {
+            columns.addPoint(i, i);
+        }
+        long columnsBytes = usedMemory() - before;
+
+        // two float columns are 8 bytes per point, a boxed point is at least 16 + 4 bytes
+        assertTrue(columnsBytes < POINTS_COUNT * 8 * 1.25);
+        assertTrue(columnsBytes * 2 < boxedBytes);
+        // keep both alive until measured
+        assertEquals(boxed.size(), columns.size());
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,44 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class LabelCacheTest {
+
+    @Test
+    public void put_evictsLeastRecentlyUsedLabel() throws Exception {
+        LabelCache cache = new LabelCache(2);
+        String[] first = {"MON", "1"};
+        cache.put(1, first, 20);
+        cache.put(2, new String[]{"TUE", "2"}, 20);
+        // touch first label, so second one becomes the eldest
+        cache.indexOf(1);
+        cache.put(3, new String[]{"WED", "3"}, 20);
+
+        assertEquals(-1, cache.indexOf(2));
+        int slot = cache.indexOf(1);
+        assertSame(first, cache.getLines(slot));
+        assertEquals(20, cache.getHeight(slot), 0);
+    }
+
+    @Test
+    public void put_keepsMissingLabels() throws Exception {
+        LabelCache cache = new LabelCache(4);
+        int slot = cache.put(5, null, 0);
+
+        assertEquals(slot, cache.indexOf(5));
+        assertNull(cache.getLines(slot));
+    }
+
+    @Test
+    public void clear_removesAllLabels() throws Exception {
+        LabelCache cache = new LabelCache(4);
+        cache.put(1, new String[]{"1"}, 10);
+        cache.clear();
+
+        assertEquals(-1, cache.indexOf(1));
+    }
+}
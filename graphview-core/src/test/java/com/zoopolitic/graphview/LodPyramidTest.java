@@ -0,0 +1,222 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LodPyramidTest {
+
+    @Test
+    public void levelFor_picksCoarsestLevelWithBucketPerColumn() {
+        DataSet dataSet = randomWalk(100000, new Random(1));
+        LodPyramid pyramid = dataSet.getLodPyramid();
+
+        // 100000 / 2^5 = 3125 buckets, 100000 / 2^6 = 1562 buckets
+        assertEquals(5 - LodPyramid.BASE_SHIFT, pyramid.levelFor(0, 100000, 2000));
+        assertEquals(0, pyramid.levelFor(0, 100000, 100000 / 8));
+        assertEquals(-1, pyramid.levelFor(0, 100000, 100000 / 8 + 1));
+    }
+
+    @Test
+    public void collect_keepsExtremesOfEveryBucketInOrder() {
+        DataSet dataSet = randomWalk(10000, new Random(2));
+        LodPyramid pyramid = dataSet.getLodPyramid();
+        int level = 2;
+        int from = 1234;
+        int to = 8765;
+        int[] out = new int[pyramid.maxPoints(level, from, to)];
+        int count = pyramid.collect(dataSet, level, from, to, out);
+
+        for (int i = 1; i < count; i++) {
+            assertTrue(out[i] > out[i - 1]);
+        }
+        assertTrue(out[0] <= from);
+        assertTrue(out[count - 1] >= to - 1);
+        // min and max of the range are among collected points
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, dataSet.getY(out[i]));
+            max = Math.max(max, dataSet.getY(out[i]));
+        }
+        int bucketSize = 1 << (LodPyramid.BASE_SHIFT + level);
+        int rangeFrom = from / bucketSize * bucketSize;
+        int rangeTo = Math.min(dataSet.size(), (to - 1) / bucketSize * bucketSize + bucketSize);
+        assertEquals(dataSet.getMinY(rangeFrom, rangeTo), min, 0);
+        assertEquals(dataSet.getMaxY(rangeFrom, rangeTo), max, 0);
+    }
+
+    @Test
+    public void appendedPoints_updatePyramidIncrementally() {
+        Random random = new Random(3);
+        DataSet incremental = new DataSet(0, 0);
+        DataSet all = new DataSet(0, 0);
+        float y = 0;
+        for (int i = 0; i < 5000; i++) {
+            int count = random.nextInt(40) + 1;
+            for (int j = 0; j < count; j++) {
+                y += random.nextFloat() - 0.5f;
+                incremental.addPoint(incremental.size(), y);
+                all.addPoint(all.size(), y);
+            }
+            if (i % 100 == 0) {
+                incremental.getLodPyramid();
+            }
+        }
+        assertSamePyramid(all, all.getLodPyramid(), incremental, incremental.getLodPyramid());
+    }
+
+    @Test
+    public void removedPoints_rebuildPyramid() {
+        DataSet dataSet = randomWalk(5000, new Random(4));
+        dataSet.getLodPyramid();
+        dataSet.removePoints(1000, 2000);
+        LodPyramid pyramid = dataSet.getLodPyramid();
+
+        DataSet copy = new DataSet(0, 0);
+        for (int i = 0; i < dataSet.size(); i++) {
+            copy.addPoint(dataSet.getX(i), dataSet.getY(i));
+        }
+        assertSamePyramid(copy, copy.getLodPyramid(), dataSet, pyramid);
+    }
+
+    @Test
+    public void trimmedDataSet_evictsFirstBuckets() {
+        DataSet dataSet = randomWalk(5000, new Random(6));
+        dataSet.getLodPyramid();
+        dataSet.removePoints(0, 1234);
+        for (int i = 5000; i < 6000; i++) {
+            dataSet.addPoint(i, i % 13);
+        }
+        LodPyramid pyramid = dataSet.getLodPyramid();
+
+        assertEquals(0, dataSet.getRewriteCount());
+        // buckets are aligned to positions before the trim, so they are checked against points
+        // instead of a pyramid built from scratch
+        assertBucketsKeepExtremes(dataSet, pyramid);
+        DataSet copy = new DataSet(0, 0);
+        for (int i = 0; i < dataSet.size(); i++) {
+            copy.addPoint(dataSet.getX(i), dataSet.getY(i));
+        }
+        assertSameExtremes(copy, copy.getLodPyramid(), dataSet, pyramid);
+    }
+
+    @Test
+    public void overwrittenRingBuffer_evictsFirstBuckets() {
+        RingBufferDataSet ring = new RingBufferDataSet(0, 0, 1000);
+        Random random = new Random(5);
+        float[] xs = new float[50];
+        float[] ys = new float[50];
+        int x = 0;
+        for (int i = 0; i < 400; i++) {
+            int count = random.nextInt(xs.length) + 1;
+            for (int j = 0; j < count; j++) {
+                xs[j] = x++;
+                ys[j] = random.nextFloat();
+            }
+            if (i % 2 == 0) {
+                ring.addPoints(xs, ys, 0, count);
+            } else {
+                for (int j = 0; j < count; j++) {
+                    ring.addPoint(xs[j], ys[j]);
+                }
+            }
+            if (i % 50 == 0) {
+                ring.removePoints(0, random.nextInt(20));
+            }
+            assertBucketsKeepExtremes(ring, ring.getLodPyramid());
+        }
+        assertEquals(0, ring.getRewriteCount());
+    }
+
+    /**
+     * Checks every bucket of every level against points it covers, bounds of a bucket are taken
+     * from collecting the single point it starts with
+     */
+    private static void assertBucketsKeepExtremes(DataSet dataSet, LodPyramid pyramid) {
+        int size = dataSet.size();
+        int[] out = new int[8];
+        for (int level = 0; level < pyramid.getLevelCount(); level++) {
+            int first = 0;
+            while (first < size) {
+                int count = pyramid.collect(dataSet, level, first, first + 1, out);
+                assertEquals(first, out[0]);
+                int last = out[count - 1];
+                assertTrue(last - first < 1 << (LodPyramid.BASE_SHIFT + level));
+                int min = first;
+                int max = first;
+                for (int i = first + 1; i <= last; i++) {
+                    if (dataSet.getY(i) < dataSet.getY(min)) {
+                        min = i;
+                    }
+                    if (dataSet.getY(i) > dataSet.getY(max)) {
+                        max = i;
+                    }
+                }
+                int[] expected = {first, Math.min(min, max), Math.max(min, max), last};
+                int expectedCount = 0;
+                for (int index : expected) {
+                    if (expectedCount == 0 || index != expected[expectedCount - 1]) {
+                        expected[expectedCount++] = index;
+                    }
+                }
+                assertArrayEquals(Arrays.copyOf(expected, expectedCount), Arrays.copyOf(out, count));
+                first = last + 1;
+            }
+            assertEquals(size, first);
+        }
+    }
+
+    private static void assertSamePyramid(DataSet expectedDataSet, LodPyramid expected,
+                                          DataSet actualDataSet, LodPyramid actual) {
+        assertEquals(expected.getLevelCount(), actual.getLevelCount());
+        int size = expectedDataSet.size();
+        assertEquals(size, actualDataSet.size());
+        for (int level = 0; level < expected.getLevelCount(); level++) {
+            int[] expectedOut = new int[expected.maxPoints(level, 0, size)];
+            int[] actualOut = new int[actual.maxPoints(level, 0, size)];
+            int expectedCount = expected.collect(expectedDataSet, level, 0, size, expectedOut);
+            int actualCount = actual.collect(actualDataSet, level, 0, size, actualOut);
+            assertEquals(expectedCount, actualCount);
+            assertArrayEquals(expectedOut, actualOut);
+        }
+    }
+
+    /**
+     * Checks that the coarsest level of both pyramids keeps the same min and max of all points
+     */
+    private static void assertSameExtremes(DataSet expectedDataSet, LodPyramid expected,
+                                           DataSet actualDataSet, LodPyramid actual) {
+        assertEquals(expectedDataSet.size(), actualDataSet.size());
+        assertArrayEquals(collectExtremes(expectedDataSet, expected),
+                collectExtremes(actualDataSet, actual), 0);
+    }
+
+    private static float[] collectExtremes(DataSet dataSet, LodPyramid pyramid) {
+        int level = pyramid.getLevelCount() - 1;
+        int[] out = new int[pyramid.maxPoints(level, 0, dataSet.size())];
+        int count = pyramid.collect(dataSet, level, 0, dataSet.size(), out);
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, dataSet.getY(out[i]));
+            max = Math.max(max, dataSet.getY(out[i]));
+        }
+        return new float[]{min, max};
+    }
+
+    private static DataSet randomWalk(int count, Random random) {
+        DataSet dataSet = new DataSet(0, 0, count);
+        float y = 0;
+        for (int i = 0; i < count; i++) {
+            y += random.nextFloat() * 2 - 1;
+            dataSet.addPoint(i, y);
+        }
+        return dataSet;
+    }
+}
@@ -0,0 +1,45 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LttbDecimatorTest {
+
+    @Test
+    public void decimate_keepsEdgesAndPeaks() throws Exception {
+        int count = 10000;
+        float[] src = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            src[i * 2] = i * 0.05f;
+            src[i * 2 + 1] = i == 5000 ? 1000 : (float) Math.sin(i * 0.01);
+        }
+        float[] dst = new float[count * 2];
+
+        int written = new LttbDecimator().decimate(src, count, dst, 100);
+
+        assertEquals(100, written);
+        assertEquals(src[0], dst[0], 0);
+        assertEquals(src[(count - 1) * 2], dst[(written - 1) * 2], 0);
+        boolean peakKept = false;
+        for (int i = 0; i < written; i++) {
+            peakKept |= dst[i * 2 + 1] == 1000;
+            if (i > 0) {
+                assertTrue(dst[i * 2] > dst[i * 2 - 2]);
+            }
+        }
+        assertTrue(peakKept);
+    }
+
+    @Test
+    public void decimate_copiesSparseInput() throws Exception {
+        float[] src = {0, 1, 1, 2, 2, 3};
+        float[] dst = new float[6];
+
+        int written = new LttbDecimator().decimate(src, 3, dst, 100);
+
+        assertEquals(3, written);
+        assertEquals(3, dst[5], 0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class M4DecimatorTest {
+
+    @Test
+    public void decimate_keepsFirstLastMinMaxOfEveryColumn() throws Exception {
+        int count = 100000;
+        int width = 100;
+        Random random = new Random(7);
+        float[] src = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            src[i * 2] = i * width / (float) count;
+            src[i * 2 + 1] = random.nextFloat();
+        }
+        float[] dst = new float[count * 2];
+
+        int written = new M4Decimator().decimate(src, count, dst, width);
+
+        assertTrue(written <= width * 4);
+        int from = 0;
+        for (int column = 0; column < width; column++) {
+            int to = from;
+            float min = Float.MAX_VALUE;
+            float max = -Float.MAX_VALUE;
+            while (to < count && (int) Math.floor(src[to * 2]) == column) {
+                min = Math.min(min, src[to * 2 + 1]);
+                max = Math.max(max, src[to * 2 + 1]);
+                to++;
+            }
+            float outMin = Float.MAX_VALUE;
+            float outMax = -Float.MAX_VALUE;
+            boolean hasFirst = false;
+            boolean hasLast = false;
+            for (int i = 0; i < written; i++) {
+                if ((int) Math.floor(dst[i * 2]) == column) {
+                    outMin = Math.min(outMin, dst[i * 2 + 1]);
+                    outMax = Math.max(outMax, dst[i * 2 + 1]);
+                    hasFirst |= dst[i * 2] == src[from * 2] && dst[i * 2 + 1] == src[from * 2 + 1];
+                    hasLast |= dst[i * 2] == src[(to - 1) * 2] && dst[i * 2 + 1] == src[(to - 1) * 2 + 1];
+                }
+            }
+            assertEquals(min, outMin, 0);
+            assertEquals(max, outMax, 0);
+            assertTrue(hasFirst);
+            assertTrue(hasLast);
+            from = to;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedDataSetTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void open_readsPointsAndStoredBounds() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 10000; i++) {
+            dataSet.addPoint(i, (float) Math.sin(i * 0.01) * 100);
+        }
+        File file = folder.newFile();
+        MappedDataSet.write(file, dataSet);
+        MappedDataSet mapped = MappedDataSet.open(file, 1, 2);
+
+        assertEquals(dataSet.size(), mapped.size());
+        assertTrue(mapped.isSorted());
+        for (int i = 0; i < dataSet.size(); i++) {
+            assertEquals(dataSet.getX(i), mapped.getX(i), 0);
+            assertEquals(dataSet.getY(i), mapped.getY(i), 0);
+        }
+        assertEquals(dataSet.getMinX(), mapped.getMinX(), 0);
+        assertEquals(dataSet.getMaxX(), mapped.getMaxX(), 0);
+        assertEquals(dataSet.getMinY(), mapped.getMinY(), 0);
+        assertEquals(dataSet.getMaxY(), mapped.getMaxY(), 0);
+        assertEquals(dataSet.getMaxY(100, 500), mapped.getMaxY(100, 500), 0);
+        assertEquals(dataSet.getMinY(100, 500), mapped.getMinY(100, 500), 0);
+        assertEquals(2500, mapped.ceilingIndex(2499.5f));
+        assertEquals(1, mapped.getLineColor());
+        assertEquals(2, mapped.getPointColor());
+    }
+
+    @Test
+    public void open_keepsUnsortedFlag() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        dataSet.addPoint(2, 1);
+        dataSet.addPoint(1, 2);
+        File file = folder.newFile();
+        MappedDataSet.write(file, dataSet);
+
+        assertFalse(MappedDataSet.open(file, 0, 0).isSorted());
+    }
+
+    @Test(expected = IOException.class)
+    public void open_rejectsForeignFile() throws Exception {
+        File file = folder.newFile();
+        FileOutputStream stream = new FileOutputStream(file);
+        stream.write(new byte[MappedDataSet.HEADER_SIZE]);
+        stream.close();
+        MappedDataSet.open(file, 0, 0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void addPoint_throws() throws Exception {
+        File file = folder.newFile();
+        MappedDataSet.write(file, new DataSet(0, 0));
+        MappedDataSet.open(file, 0, 0).addPoint(1, 1);
+    }
+
+    @Test
+    public void getLodPyramid_isNotBuilt() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 1000; i++) {
+            dataSet.addPoint(i, i % 7);
+        }
+        File file = folder.newFile();
+        MappedDataSet.write(file, dataSet);
+
+        assertNull(MappedDataSet.open(file, 0, 0).getLodPyramid());
+    }
+}
@@ -0,0 +1,43 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MinMaxIndexTest {
+
+    @Test
+    public void rangeQueries_matchLinearScan() throws Exception {
+        Random random = new Random(42);
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 5000; i++) {
+            dataSet.addPoint(i, random.nextFloat() * 200 - 100);
+        }
+        for (int n = 0; n < 2000; n++) {
+            int from = random.nextInt(dataSet.size());
+            int to = from + random.nextInt(dataSet.size() - from + 1);
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, dataSet.getY(i));
+                max = Math.max(max, dataSet.getY(i));
+            }
+            assertEquals(min, dataSet.getMinY(from, to), 0);
+            assertEquals(max, dataSet.getMaxY(from, to), 0);
+        }
+    }
+
+    @Test
+    public void removePoint_updatesIndex() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addPoint(i, i == 50 ? 1000 : i);
+        }
+        assertEquals(1000, dataSet.getMaxY(0, 100), 0);
+
+        dataSet.removePoint(new DataPoint(50, 1000));
+        assertEquals(99, dataSet.getMaxY(0, 99), 0);
+    }
+}
@@ -0,0 +1,157 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferDataSetTest {
+
+    @Test
+    public void addPoint_overwritesOldestPoints() throws Exception {
+        RingBufferDataSet dataSet = new RingBufferDataSet(0, 0, 3);
+        for (int i = 0; i < 5; i++) {
+            dataSet.addPoint(i, i * 10);
+        }
+
+        assertEquals(3, dataSet.size());
+        assertEquals(2, dataSet.getX(0), 0);
+        assertEquals(4, dataSet.getX(2), 0);
+        assertEquals(2, dataSet.getMinX(), 0);
+        assertEquals(4, dataSet.getMaxX(), 0);
+        assertEquals(20, dataSet.getMinY(), 0);
+        assertEquals(40, dataSet.getMaxY(), 0);
+        assertTrue(dataSet.isSorted());
+        assertEquals(1, dataSet.ceilingIndex(3));
+    }
+
+    @Test
+    public void bounds_followEvictedExtremes() throws Exception {
+        RingBufferDataSet dataSet = new RingBufferDataSet(0, 0, 100);
+        dataSet.addPoint(0, 1000);
+        for (int i = 1; i < 100; i++) {
+            dataSet.addPoint(i, 1);
+        }
+        assertEquals(1000, dataSet.getMaxY(), 0);
+
+        dataSet.addPoint(100, 2);
+        assertEquals(2, dataSet.getMaxY(), 0);
+        assertEquals(1, dataSet.getMinY(), 0);
+    }
+
+    @Test
+    public void removePoints_trimsOldestPoints() throws Exception {
+        RingBufferDataSet dataSet = new RingBufferDataSet(0, 0, 10);
+        for (int i = 0; i < 15; i++) {
+            dataSet.addPoint(i, i);
+        }
+
+        dataSet.removePoints(0f, 8f);
+        assertEquals(7, dataSet.size());
+        assertEquals(8, dataSet.getMinX(), 0);
+
+        dataSet.addPoint(15, 15);
+        assertEquals(8, dataSet.size());
+        assertEquals(15, dataSet.getMaxY(), 0);
+        assertEquals(8, dataSet.getMinY(), 0);
+    }
+
+    @Test
+    public void removePoints_fromMiddleOfWrappedBuffer() throws Exception {
+        RingBufferDataSet dataSet = new RingBufferDataSet(0, 0, 10);
+        for (int i = 0; i < 15; i++) {
+            dataSet.addPoint(i, i == 9 ? 100 : i);
+        }
+
+        dataSet.removePoints(3, 6);
+        assertEquals(7, dataSet.size());
+        float[] expected = {5, 6, 7, 11, 12, 13, 14};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], dataSet.getX(i), 0);
+        }
+        assertEquals(14, dataSet.getMaxY(), 0);
+        assertEquals(5, dataSet.getMinY(), 0);
+
+        dataSet.addPoint(15, 15);
+        assertEquals(8, dataSet.size());
+        assertEquals(15, dataSet.getMaxY(), 0);
+    }
+
+    @Test
+    public void removePoint_throughDataSetReference() throws Exception {
+        DataSet dataSet = new RingBufferDataSet(0, 0, 5);
+        for (int i = 0; i < 7; i++) {
+            dataSet.addPoint(i, i * 10);
+        }
+
+        dataSet.removePoint(new DataPoint(4, 40));
+        assertEquals(4, dataSet.size());
+        assertEquals(3, dataSet.getX(1), 0);
+        assertEquals(5, dataSet.getX(2), 0);
+    }
+
+    @Test
+    public void removeXRange_ofUnsortedPoints() throws Exception {
+        RingBufferDataSet dataSet = new RingBufferDataSet(0, 0, 6);
+        float[] xs = {9, 1, 5, 3, 7, 2, 8, 4};
+        for (float x : xs) {
+            dataSet.addPoint(x, x);
+        }
+        assertFalse(dataSet.isSorted());
+
+        // buffer keeps the last 6 points: 5, 3, 7, 2, 8, 4
+        dataSet.removePoints(3f, 8f);
+        assertEquals(2, dataSet.size());
+        assertEquals(2, dataSet.getX(0), 0);
+        assertEquals(8, dataSet.getX(1), 0);
+        assertEquals(8, dataSet.getMaxY(), 0);
+    }
+
+    @Test
+    public void addPoints_matchesAddPoint() throws Exception {
+        Random random = new Random(5);
+        RingBufferDataSet single = new RingBufferDataSet(0, 0, 100);
+        RingBufferDataSet bulk = new RingBufferDataSet(0, 0, 100);
+        int x = 0;
+        for (int batch = 0; batch < 50; batch++) {
+            int count = random.nextInt(150);
+            float[] xs = new float[count];
+            float[] ys = new float[count];
+            for (int i = 0; i < count; i++, x++) {
+                xs[i] = x;
+                ys[i] = random.nextFloat();
+                single.addPoint(xs[i], ys[i]);
+            }
+            bulk.addPoints(xs, ys, 0, count);
+
+            assertEquals(single.size(), bulk.size());
+            assertEquals(single.getMinX(), bulk.getMinX(), 0);
+            assertEquals(single.getMaxY(), bulk.getMaxY(), 0);
+            assertEquals(single.getMinY(10, 60), bulk.getMinY(10, 60), 0);
+        }
+    }
+
+    @Test
+    public void rangeQueries_matchLinearScan() throws Exception {
+        Random random = new Random(3);
+        RingBufferDataSet dataSet = new RingBufferDataSet(0, 0, 1000);
+        for (int i = 0; i < 2500; i++) {
+            dataSet.addPoint(i, random.nextFloat());
+        }
+        for (int n = 0; n < 1000; n++) {
+            int from = random.nextInt(dataSet.size());
+            int to = from + random.nextInt(dataSet.size() - from + 1);
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, dataSet.getY(i));
+                max = Math.max(max, dataSet.getY(i));
+            }
+            assertEquals(min, dataSet.getMinY(from, to), 0);
+            assertEquals(max, dataSet.getMaxY(from, to), 0);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VerticalScalerTest {
+
+    private static class ManualClock implements Clock {
+
+        long time;
+
+        @Override
+        public long uptimeMillis() {
+            return time;
+        }
+    }
+
+    private static final ScaleInterpolator LINEAR = new ScaleInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return input;
+        }
+    };
+
+    @Test
+    public void computeYScale_interpolatesWithClock() throws Exception {
+        ManualClock clock = new ManualClock();
+        VerticalScaler scaler = new VerticalScaler(LINEAR, clock);
+        scaler.setScaleDuration(100);
+        scaler.startScalingY(100, 0, 200, 50);
+
+        clock.time = 50;
+        assertTrue(scaler.computeYScale());
+        assertEquals(150, scaler.getCurrMaxY(), 1e-3f);
+        assertEquals(25, scaler.getCurrMinY(), 1e-3f);
+
+        clock.time = 100;
+        assertFalse(scaler.computeYScale());
+        assertTrue(scaler.isFinished());
+        assertEquals(200, scaler.getCurrMaxY(), 0);
+        assertEquals(50, scaler.getCurrMinY(), 0);
+    }
+}
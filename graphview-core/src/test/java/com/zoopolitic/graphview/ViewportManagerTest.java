@@ -0,0 +1,164 @@
+package com.zoopolitic.graphview;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ViewportManagerTest {
+
+    private static ViewportManager createViewport(List<DataSet> dataSets) {
+        ViewportManager viewportManager = new ViewportManager();
+        viewportManager.constrainDrawRect(0, 0, 700, 400);
+        viewportManager.calculateMinMax(dataSets);
+        viewportManager.constrainViewportRect(0, 0, 7, 100);
+        return viewportManager;
+    }
+
+    @Test
+    public void fillDrawLines_matchesDrawCoordinates() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 10; i++) {
+            dataSet.addPoint(i, i * 10);
+        }
+        ViewportManager viewportManager = createViewport(Collections.singletonList(dataSet));
+
+        float[] lines = new float[9 * 4];
+        assertEquals(9, viewportManager.fillDrawLines(dataSet, 0, 10, lines));
+        for (int i = 0; i < 9; i++) {
+            assertEquals(viewportManager.getDrawX(i), lines[i * 4], 1e-3f);
+            assertEquals(viewportManager.getDrawY(i * 10), lines[i * 4 + 1], 1e-3f);
+            assertEquals(viewportManager.getDrawX(i + 1), lines[i * 4 + 2], 1e-3f);
+            assertEquals(viewportManager.getDrawY((i + 1) * 10), lines[i * 4 + 3], 1e-3f);
+        }
+        assertEquals(0, viewportManager.getDrawX(0), 0);
+        assertEquals(400, viewportManager.getDrawY(0), 0);
+    }
+
+    @Test
+    public void computeClosestPoints_collectsPointsWithSameX() throws Exception {
+        DataSet first = new DataSet(0, 0);
+        DataSet second = new DataSet(0, 0);
+        for (int i = 0; i < 10; i++) {
+            first.addPoint(i, i);
+            second.addPoint(i, i * 2);
+        }
+        ViewportManager viewportManager = createViewport(Arrays.asList(first, second));
+        // central line is at X = 3.5, move it to X = 4
+        viewportManager.move(0.5f);
+        viewportManager.computeClosestPoints(Arrays.asList(first, second));
+
+        assertEquals(2, viewportManager.closestPointsCount);
+        assertEquals(4, viewportManager.closestPointsBuffer[0], 0);
+        assertEquals(4, viewportManager.closestPointsBuffer[1], 0);
+        assertEquals(4, viewportManager.closestPointsBuffer[2], 0);
+        assertEquals(8, viewportManager.closestPointsBuffer[3], 0);
+    }
+
+    @Test
+    public void computeClosestPoints_matchesScanOfUnsortedData() throws Exception {
+        Random random = new Random(7);
+        DataSet sorted = new DataSet(0, 0);
+        DataSet unsorted = new DataSet(0, 0);
+        for (int i = 0; i < 1000; i++) {
+            sorted.addPoint(i * 0.1f, random.nextFloat());
+        }
+        for (int i = sorted.size() - 1; i >= 0; i--) {
+            unsorted.addPoint(sorted.getX(i), sorted.getY(i));
+        }
+        ViewportManager sortedViewport = createViewport(Collections.singletonList(sorted));
+        ViewportManager unsortedViewport = createViewport(Collections.singletonList(unsorted));
+        for (int i = 0; i < 50; i++) {
+            float left = random.nextFloat() * 90;
+            sortedViewport.move(left);
+            unsortedViewport.move(left);
+            sortedViewport.computeClosestPoints(Collections.singletonList(sorted));
+            unsortedViewport.computeClosestPoints(Collections.singletonList(unsorted));
+
+            assertEquals(1, sortedViewport.closestPointsCount);
+            assertEquals(unsortedViewport.closestPointsCount, sortedViewport.closestPointsCount);
+            assertEquals(unsortedViewport.closestPointsBuffer[0], sortedViewport.closestPointsBuffer[0], 0);
+            assertEquals(unsortedViewport.closestPointsBuffer[1], sortedViewport.closestPointsBuffer[1], 0);
+        }
+    }
+
+    @Test
+    public void computeClosestPoints_reusesResultUntilViewportOrDataChanges() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 10; i++) {
+            dataSet.addPoint(i, i);
+        }
+        List<DataSet> dataSets = Collections.singletonList(dataSet);
+        ViewportManager viewportManager = createViewport(dataSets);
+
+        assertTrue(viewportManager.computeClosestPoints(dataSets) > 0);
+        assertEquals(0, viewportManager.computeClosestPoints(dataSets));
+
+        dataSet.addPoint(10, 10);
+        assertTrue(viewportManager.computeClosestPoints(dataSets) > 0);
+
+        viewportManager.move(0.5f);
+        assertTrue(viewportManager.computeClosestPoints(dataSets) > 0);
+        assertEquals(4, viewportManager.closestPointsBuffer[0], 0);
+    }
+
+    @Test
+    public void findMarker_picksNearestPointAndFirstDataSetOnTie() throws Exception {
+        DataSet first = new DataSet(0, 0);
+        DataSet second = new DataSet(0, 0);
+        DataSet third = new DataSet(0, 0);
+        for (int i = 0; i < 7; i++) {
+            first.addPoint(i, 50);
+            second.addPoint(i, 50);
+            third.addPoint(i + 0.1f, 52);
+        }
+        List<DataSet> dataSets = Arrays.asList(third, first, second);
+        ViewportManager viewportManager = createViewport(dataSets);
+        // pixels: x = 100 per unit, y = 4 per unit
+        float x = viewportManager.getDrawX(3.02f);
+        float y = viewportManager.getDrawY(50.5f);
+
+        assertTrue(viewportManager.findMarker(x, y, 30, dataSets));
+        // first and second points are nearer than third, first wins the tie
+        assertEquals(1, viewportManager.markerDataSetIndex);
+        assertEquals(3, viewportManager.markerX, 0);
+        assertEquals(50, viewportManager.markerY, 0);
+
+        assertFalse(viewportManager.findMarker(viewportManager.getDrawX(3.5f), y, 30, dataSets));
+        assertEquals(-1, viewportManager.markerDataSetIndex);
+    }
+
+    @Test
+    public void scrollXBy_startsScrollInPixels() throws Exception {
+        DataSet dataSet = new DataSet(0, 0);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addPoint(i, i);
+        }
+        ViewportManager viewportManager = createViewport(Collections.singletonList(dataSet));
+        final int[] scroll = new int[1];
+        GraphScroller scroller = new GraphScroller() {
+            @Override
+            public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+                scroll[0] = dx;
+            }
+
+            @Override
+            public void fling(int startX, int startY, int velocityX, int velocityY,
+                              int minX, int maxX, int minY, int maxY, int overX, int overY) {
+            }
+
+            @Override
+            public void forceFinished(boolean finished) {
+            }
+        };
+        viewportManager.scrollXBy(scroller, 2, 0);
+
+        assertEquals(200, scroll[0]);
+    }
+}
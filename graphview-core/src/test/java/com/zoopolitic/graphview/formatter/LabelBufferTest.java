@@ -0,0 +1,77 @@
+package com.zoopolitic.graphview.formatter;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class LabelBufferTest {
+
+    private static String line(LabelBuffer buffer, int line) {
+        int start = buffer.getLineStart(line);
+        return new String(buffer.getChars(), start, buffer.getLineEnd(line) - start);
+    }
+
+    @Test
+    public void append_float_trimsTrailingZeros() throws Exception {
+        LabelBuffer buffer = new LabelBuffer();
+        buffer.append(70.5f, 2).append(' ')
+                .append(70f, 2).append(' ')
+                .append(-0.25f, 2).append(' ')
+                .append(1234.567f, 2).append(' ')
+                .append(3.7f, 0);
+
+        assertEquals("70.5 70.0 -0.25 1234.57 4", line(buffer, 0));
+    }
+
+    @Test
+    public void append_float_matchesFloatToString() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            float value = i % 2 == 0
+                    ? Float.intBitsToFloat(random.nextInt())
+                    : (float) (random.nextDouble() * Math.pow(10, random.nextInt(11) - 3));
+            LabelBuffer buffer = new LabelBuffer();
+            buffer.append(value);
+
+            assertEquals(Float.toString(value), line(buffer, 0));
+        }
+    }
+
+    @Test
+    public void simpleLabelFormatter_roundsToGivenDecimals() throws Exception {
+        LabelBuffer buffer = new LabelBuffer();
+        new SimpleLabelFormatter().format(new float[]{1, 70.123f}, 2, buffer);
+        assertEquals("70.123 kg", line(buffer, 0));
+
+        buffer.clear();
+        new SimpleLabelFormatter(2).format(new float[]{1, 70.123f}, 2, buffer);
+        assertEquals("70.12 kg", line(buffer, 0));
+    }
+
+    @Test
+    public void newLine_splitsLinesAndIgnoresTrailingEmptyLine() throws Exception {
+        LabelBuffer buffer = new LabelBuffer();
+        new SimpleLabelFormatter().format(new float[]{1, 70.5f, 2, 80}, 4, buffer);
+
+        assertEquals(2, buffer.getLineCount());
+        assertEquals("70.5 kg", line(buffer, 0));
+        assertEquals("80.0 kg", line(buffer, 1));
+    }
+
+    @Test
+    public void clear_reusesBuffer() throws Exception {
+        LabelBuffer buffer = new LabelBuffer();
+        for (int i = 0; i < 100; i++) {
+            buffer.append("long label line").newLine();
+        }
+        char[] chars = buffer.getChars();
+        buffer.clear();
+        buffer.append("short");
+
+        assertEquals(1, buffer.getLineCount());
+        assertEquals("short", line(buffer, 0));
+        assertEquals(chars, buffer.getChars());
+    }
+}